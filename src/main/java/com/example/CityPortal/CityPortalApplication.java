@@ -1,6 +1,9 @@
 package com.example.CityPortal;
 
+import com.example.CityPortal.crawler.config.CrawlerProperties;
+import com.example.CityPortal.images.config.ImageProxyProperties;
 import com.example.CityPortal.map.config.MapApiProperties;
+import com.example.CityPortal.routes.config.RouteDetailsProperties;
 import com.example.CityPortal.taxi.config.TaxiApiProperties;
 import com.example.CityPortal.traffic.config.TrafficApiProperties;
 import com.example.CityPortal.weather.config.WeatherApiProperties;
@@ -13,6 +16,8 @@ import org.springframework.data.web.config.EnableSpringDataWebSupport;
 
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+import java.util.Map;
+
 @SpringBootApplication
 @EnableCaching
 @EnableScheduling
@@ -21,11 +26,16 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 													WeatherCityProperties.class,
 													MapApiProperties.class,
 													TrafficApiProperties.class,
-													TaxiApiProperties.class})
+													TaxiApiProperties.class,
+													CrawlerProperties.class,
+													ImageProxyProperties.class,
+													RouteDetailsProperties.class})
 public class CityPortalApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(CityPortalApplication.class, args);
+		SpringApplication application = new SpringApplication(CityPortalApplication.class);
+		application.setDefaultProperties(Map.of("spring.task.scheduling.pool.size", 6));
+		application.run(args);
 	}
 
 }
\ No newline at end of file
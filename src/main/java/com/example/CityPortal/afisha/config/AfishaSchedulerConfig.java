@@ -1,10 +1,13 @@
 package com.example.CityPortal.afisha.config;
 
 import com.example.CityPortal.afisha.services.AfishaService;
+import com.example.CityPortal.afisha.services.impls.EventCalendarIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 
 @Slf4j
@@ -14,6 +17,12 @@ import org.springframework.scheduling.annotation.Scheduled;
 public class AfishaSchedulerConfig {
 
     private final AfishaService afishaService;
+    private final EventCalendarIndex calendarIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpCalendar() {
+        calendarIndex.refresh();
+    }
 
     @Scheduled(initialDelayString = "${afisha.parser.initial-delay-ms:30000}",
                         fixedDelayString   = "${afisha.parser.interval-ms:3600000}")
@@ -22,6 +31,7 @@ public class AfishaSchedulerConfig {
         try {
             int saved = afishaService.fetchAndSave();
             log.info("Плановый парсинг афиши завершён, новых/обновлённых: {}", saved);
+            calendarIndex.refresh();
         }
         catch (Exception e) {
             log.error("Ошибка планового парсинга афиши: {}", e.getMessage(), e);
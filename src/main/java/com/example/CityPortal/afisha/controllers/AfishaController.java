@@ -1,5 +1,6 @@
 package com.example.CityPortal.afisha.controllers;
 
+import com.example.CityPortal.afisha.dtos.EventDayCountDto;
 import com.example.CityPortal.afisha.dtos.EventDetailDto;
 import com.example.CityPortal.afisha.dtos.EventDto;
 import com.example.CityPortal.afisha.services.AfishaService;
@@ -9,6 +10,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -22,18 +24,27 @@ public class AfishaController {
                                                             @RequestParam(defaultValue = "10") int size,
                                                             @RequestParam(required = false) String title,
                                                             @RequestParam(required = false) String dateFrom,
-                                                            @RequestParam(required = false) String dateTo) {
+                                                            @RequestParam(required = false) String dateTo,
+                                                            @RequestParam(required = false) Integer priceMax,
+                                                            @RequestParam(required = false) String sort) {
         Pageable pageable = PageRequest.of(page, Math.min(size, 50));
         boolean hasFilter = (title != null && !title.isBlank())
             || (dateFrom != null && !dateFrom.isBlank())
-            || (dateTo   != null && !dateTo.isBlank());
+            || (dateTo   != null && !dateTo.isBlank())
+            || priceMax != null
+            || (sort     != null && !sort.isBlank());
         if (hasFilter) {
-            return afishaService.search(title, dateFrom, dateTo, pageable);
+            return afishaService.search(title, dateFrom, dateTo, priceMax, sort, pageable);
         }
 
         return afishaService.getAll(pageable);
     }
 
+    @GetMapping("/calendar")
+    public List<EventDayCountDto> getCalendar(@RequestParam(required = false) String month) {
+        return afishaService.getCalendar(month);
+    }
+
     @GetMapping("/{id}")
     public EventDetailDto getEvent(@PathVariable Long id) {
         return afishaService.getById(id);
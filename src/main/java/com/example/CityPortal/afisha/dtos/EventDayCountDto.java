@@ -0,0 +1,11 @@
+package com.example.CityPortal.afisha.dtos;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+
+public record EventDayCountDto(
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+        LocalDate date,
+        int count
+) { }
@@ -11,6 +11,8 @@ public class EventDto {
     private String title;
     private String venue;
     private String price;
+    private Integer priceMin;
+    private Integer priceMax;
     private String imageUrl;
     private String sourceUrl;
 
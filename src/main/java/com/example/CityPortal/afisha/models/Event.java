@@ -8,7 +8,9 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "event")
+@Table(name = "event", indexes = {
+        @Index(name = "idx_event_price_min", columnList = "price_min")
+})
 public class Event {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -23,6 +25,12 @@ public class Event {
     @Column(name = "price", length = 256)
     private String price;
 
+    @Column(name = "price_min")
+    private Integer priceMin;
+
+    @Column(name = "price_max")
+    private Integer priceMax;
+
     @Column(name = "image_url", length = 1024)
     private String imageUrl;
 
@@ -32,6 +40,12 @@ public class Event {
     @Column(name = "event_date")
     private LocalDate eventDate;
 
+    @Column(name = "fingerprint", length = 64)
+    private String fingerprint;
+
     @Column(name = "parsed_at")
     private LocalDateTime parsedAt;
+
+    @Column(name = "last_seen_at")
+    private LocalDateTime lastSeenAt;
 }
\ No newline at end of file
@@ -4,32 +4,105 @@ import com.example.CityPortal.afisha.models.Event;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface EventRepository extends JpaRepository<Event, Long> {
-    boolean existsBySourceUrl(String sourceUrl);
     Optional<Event> findBySourceUrl(String sourceUrl);
     Page<Event> findAllByOrderByEventDateAsc(Pageable pageable);
     Page<Event> findAllByEventDateGreaterThanEqualOrderByEventDateAsc(LocalDate date, Pageable pageable);
+    List<Event> findAllByEventDateGreaterThanEqualOrderByEventDateAscIdAsc(LocalDate date);
+    long countBySourceUrlIn(Collection<String> sourceUrls);
 
-    @Query(value = "SELECT * FROM event e WHERE " +
-           "(CAST(:title AS text) IS NULL OR LOWER(e.title) LIKE LOWER(CONCAT('%', CAST(:title AS text), '%'))) AND " +
+    String SEARCH_FILTER = "(CAST(:title AS text) IS NULL OR LOWER(e.title) LIKE LOWER(CONCAT('%', CAST(:title AS text), '%'))) AND " +
            "(CAST(:from AS date) IS NULL OR e.event_date >= CAST(:from AS date)) AND " +
-           "(CAST(:to AS date) IS NULL OR e.event_date <= CAST(:to AS date)) " +
+           "(CAST(:to AS date) IS NULL OR e.event_date <= CAST(:to AS date))";
+
+    String PRICE_FILTER = SEARCH_FILTER + " AND e.price_min <= :priceMax";
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO event (title, venue, price, price_min, price_max, image_url, source_url, event_date, " +
+           "fingerprint, parsed_at, last_seen_at) " +
+           "SELECT u.title, u.venue, u.price, u.price_min, u.price_max, " +
+           "u.image_url, u.source_url, u.event_date, u.fingerprint, " +
+           "CAST(:parsedAt AS timestamp), CAST(:parsedAt AS timestamp) " +
+           "FROM unnest(CAST(:titles AS text[]), CAST(:venues AS text[]), CAST(:prices AS text[]), " +
+           "CAST(:priceMins AS integer[]), CAST(:priceMaxes AS integer[]), " +
+           "CAST(:imageUrls AS text[]), CAST(:sourceUrls AS text[]), CAST(:eventDates AS date[]), " +
+           "CAST(:fingerprints AS text[])) " +
+           "AS u(title, venue, price, price_min, price_max, image_url, source_url, event_date, fingerprint) " +
+           "ON CONFLICT (source_url) DO UPDATE SET " +
+           "title = EXCLUDED.title, venue = EXCLUDED.venue, price = EXCLUDED.price, " +
+           "price_min = EXCLUDED.price_min, price_max = EXCLUDED.price_max, " +
+           "image_url = EXCLUDED.image_url, event_date = EXCLUDED.event_date, fingerprint = EXCLUDED.fingerprint, " +
+           "parsed_at = EXCLUDED.parsed_at, last_seen_at = EXCLUDED.last_seen_at " +
+           "WHERE event.fingerprint IS DISTINCT FROM EXCLUDED.fingerprint",
+           nativeQuery = true)
+    int upsertAll(@Param("titles") String[] titles,
+                  @Param("venues") String[] venues,
+                  @Param("prices") String[] prices,
+                  @Param("priceMins") Integer[] priceMins,
+                  @Param("priceMaxes") Integer[] priceMaxes,
+                  @Param("imageUrls") String[] imageUrls,
+                  @Param("sourceUrls") String[] sourceUrls,
+                  @Param("eventDates") LocalDate[] eventDates,
+                  @Param("fingerprints") String[] fingerprints,
+                  @Param("parsedAt") LocalDateTime parsedAt);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE event SET last_seen_at = :seenAt WHERE source_url IN (:urls) " +
+           "AND (last_seen_at IS NULL OR last_seen_at < :staleBefore)",
+           nativeQuery = true)
+    int touchLastSeen(@Param("urls") Collection<String> urls,
+                      @Param("seenAt") LocalDateTime seenAt,
+                      @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Query(value = "SELECT * FROM event e WHERE " + SEARCH_FILTER + " " +
            "ORDER BY e.event_date ASC",
-           countQuery = "SELECT COUNT(*) FROM event e WHERE " +
-           "(CAST(:title AS text) IS NULL OR LOWER(e.title) LIKE LOWER(CONCAT('%', CAST(:title AS text), '%'))) AND " +
-           "(CAST(:from AS date) IS NULL OR e.event_date >= CAST(:from AS date)) AND " +
-           "(CAST(:to AS date) IS NULL OR e.event_date <= CAST(:to AS date))",
+           countQuery = "SELECT COUNT(*) FROM event e WHERE " + SEARCH_FILTER,
            nativeQuery = true)
     Page<Event> search(@Param("title") String title,
                                     @Param("from") LocalDate from,
                                     @Param("to") LocalDate to,
                                     Pageable pageable);
-}
 
+    @Query(value = "SELECT * FROM event e WHERE " + SEARCH_FILTER + " " +
+           "ORDER BY e.price_min ASC NULLS LAST, e.event_date ASC",
+           countQuery = "SELECT COUNT(*) FROM event e WHERE " + SEARCH_FILTER,
+           nativeQuery = true)
+    Page<Event> searchOrderByPrice(@Param("title") String title,
+                                   @Param("from") LocalDate from,
+                                   @Param("to") LocalDate to,
+                                   Pageable pageable);
+
+    @Query(value = "SELECT * FROM event e WHERE " + PRICE_FILTER + " " +
+           "ORDER BY e.event_date ASC",
+           countQuery = "SELECT COUNT(*) FROM event e WHERE " + PRICE_FILTER,
+           nativeQuery = true)
+    Page<Event> searchUpToPrice(@Param("title") String title,
+                                @Param("from") LocalDate from,
+                                @Param("to") LocalDate to,
+                                @Param("priceMax") int priceMax,
+                                Pageable pageable);
+
+    @Query(value = "SELECT * FROM event e WHERE " + PRICE_FILTER + " " +
+           "ORDER BY e.price_min ASC, e.event_date ASC",
+           countQuery = "SELECT COUNT(*) FROM event e WHERE " + PRICE_FILTER,
+           nativeQuery = true)
+    Page<Event> searchUpToPriceOrderByPrice(@Param("title") String title,
+                                            @Param("from") LocalDate from,
+                                            @Param("to") LocalDate to,
+                                            @Param("priceMax") int priceMax,
+                                            Pageable pageable);
+}
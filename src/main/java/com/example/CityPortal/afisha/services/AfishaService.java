@@ -1,13 +1,17 @@
 package com.example.CityPortal.afisha.services;
 
+import com.example.CityPortal.afisha.dtos.EventDayCountDto;
 import com.example.CityPortal.afisha.dtos.EventDetailDto;
 import com.example.CityPortal.afisha.dtos.EventDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+
 public interface AfishaService {
     int fetchAndSave();
     Page<EventDto> getAll(Pageable pageable);
-    Page<EventDto> search(String title, String dateFrom, String dateTo, Pageable pageable);
+    Page<EventDto> search(String title, String dateFrom, String dateTo, Integer priceMax, String sort, Pageable pageable);
+    List<EventDayCountDto> getCalendar(String month);
     EventDetailDto getById(Long id);
 }
\ No newline at end of file
@@ -1,28 +1,40 @@
 package com.example.CityPortal.afisha.services.impls;
 
+import com.example.CityPortal.afisha.dtos.EventDayCountDto;
 import com.example.CityPortal.afisha.dtos.EventDetailDto;
 import com.example.CityPortal.afisha.dtos.EventDto;
 import com.example.CityPortal.afisha.models.Event;
 import com.example.CityPortal.afisha.repository.EventRepository;
 import com.example.CityPortal.afisha.services.AfishaService;
+import com.example.CityPortal.crawler.ContentFingerprint;
+import com.example.CityPortal.crawler.TrustAllSsl;
+import com.example.CityPortal.images.services.ImageProxyService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
-import javax.net.ssl.*;
-import java.security.KeyManagementException;
-import java.security.NoSuchAlgorithmException;
-import java.security.cert.X509Certificate;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Slf4j
 @Service
@@ -31,32 +43,56 @@ public class AfishaServiceImpl implements AfishaService {
     private static final String BASE_URL    = "https://orb.okkassa.ru";
     private static final String CATALOG_URL = BASE_URL + "/catalog/all";
     private static final int    TIMEOUT_MS  = 15_000;
+    private static final Duration LAST_SEEN_RESOLUTION = Duration.ofHours(6);
+    private static final long   POLITENESS_DELAY_MS = 500;
+    private static final int    PIPELINE_CAPACITY   = 2;
     private final EventRepository eventRepository;
-    private static final SSLSocketFactory TRUST_ALL_SSL = buildTrustAllSslFactory();
+    private final ImageProxyService imageProxyService;
+    private final EventCalendarIndex calendarIndex;
 
-    private static SSLSocketFactory buildTrustAllSslFactory() {
-        try {
-            TrustManager[] trustAll = {
-                new X509TrustManager() {
-                    public X509Certificate[] getAcceptedIssuers() { return new X509Certificate[0]; }
-                    public void checkClientTrusted(X509Certificate[] c, String a) {}
-                    public void checkServerTrusted(X509Certificate[] c, String a) {}
+    @Override
+    public int fetchAndSave() {
+        long started = System.currentTimeMillis();
+        BlockingQueue<FetchedPage> fetched = new ArrayBlockingQueue<>(PIPELINE_CAPACITY);
+        BlockingQueue<ParsedPage> parsed = new ArrayBlockingQueue<>(PIPELINE_CAPACITY);
+        int saved   = 0;
+        int updated = 0;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> fetchPages(fetched));
+            executor.submit(() -> parsePages(fetched, parsed));
+
+            try {
+                while (true) {
+                    ParsedPage page = parsed.take();
+                    if (page == ParsedPage.END)
+                        break;
+                    UpsertResult result = upsertPage(page.events());
+                    saved   += result.inserted();
+                    updated += result.updated();
+                    log.debug("Страница {}: новых {}, обновлено {}", page.pageNum(), result.inserted(), result.updated());
                 }
-            };
-            SSLContext ctx = SSLContext.getInstance("TLS");
-            ctx.init(null, trustAll, new java.security.SecureRandom());
-            return ctx.getSocketFactory();
-        }
-        catch (NoSuchAlgorithmException | KeyManagementException e) {
-            throw new IllegalStateException("Не удалось создать TrustAll SSLContext", e);
+            }
+            catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                log.warn("Парсинг афиши прерван");
+            }
+            catch (RuntimeException e) {
+                log.error("Ошибка сохранения афиши: {}", e.getMessage(), e);
+            }
+            finally {
+                executor.shutdownNow();
+            }
         }
+
+        log.info("Всего мероприятий сохранено: {}, обновлено: {} (за {} мс)",
+                saved, updated, System.currentTimeMillis() - started);
+        calendarIndex.invalidate();
+        return saved;
     }
 
-    @Override
-    public int fetchAndSave() {
-        int saved   = 0;
+    private void fetchPages(BlockingQueue<FetchedPage> out) {
         int pageNum = 0;
-
         try {
             while (true) {
                 String url = pageNum == 0 ? CATALOG_URL : CATALOG_URL + "?page=" + pageNum;
@@ -66,7 +102,7 @@ public class AfishaServiceImpl implements AfishaService {
                         .connect(url)
                         .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/122.0.0.0 Safari/537.36")
                         .timeout(TIMEOUT_MS)
-                        .sslSocketFactory(TRUST_ALL_SSL)
+                        .sslSocketFactory(TrustAllSsl.SOCKET_FACTORY)
                         .get();
 
                 Elements cards = doc.select("div.product");
@@ -77,14 +113,7 @@ public class AfishaServiceImpl implements AfishaService {
                 }
 
                 log.info("Страница {}: найдено {} карточек", pageNum, cards.size());
-                for (Element card : cards) {
-                    try {
-                        saved += processCard(card);
-                    }
-                    catch (Exception e) {
-                        log.warn("Ошибка обработки карточки: {}", e.getMessage());
-                    }
-                }
+                out.put(new FetchedPage(pageNum, cards));
 
                 int nextPage = pageNum + 1;
                 boolean hasNext = doc.selectFirst(
@@ -100,36 +129,136 @@ public class AfishaServiceImpl implements AfishaService {
                 }
 
                 pageNum++;
-
-                try {
-                    Thread.sleep(500);
-                }
-                catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt(); break;
-                }
+                Thread.sleep(POLITENESS_DELAY_MS);
             }
         }
+        catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
         catch (Exception e) {
             log.error("Ошибка парсинга orb.okkassa.ru: {}", e.getMessage(), e);
         }
+        finally {
+            putQuietly(out, FetchedPage.END);
+        }
+    }
 
-        log.info("Всего мероприятий сохранено: {}", saved);
-        return saved;
+    private void parsePages(BlockingQueue<FetchedPage> in, BlockingQueue<ParsedPage> out) {
+        try {
+            while (true) {
+                FetchedPage page = in.take();
+                if (page == FetchedPage.END)
+                    break;
+
+                Map<String, Event> pageEvents = new LinkedHashMap<>();
+                for (Element card : page.cards()) {
+                    try {
+                        Event event = parseCard(card);
+                        if (event != null)
+                            pageEvents.put(event.getSourceUrl(), event);
+                    }
+                    catch (Exception e) {
+                        log.warn("Ошибка обработки карточки: {}", e.getMessage());
+                    }
+                }
+                out.put(new ParsedPage(page.pageNum(), pageEvents.values()));
+            }
+        }
+        catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            putQuietly(out, ParsedPage.END);
+        }
+    }
+
+    private static <T> void putQuietly(BlockingQueue<T> queue, T item) {
+        try {
+            queue.put(item);
+        }
+        catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private UpsertResult upsertPage(Collection<Event> events) {
+        if (events.isEmpty())
+            return new UpsertResult(0, 0);
+
+        try {
+            return upsertBatch(events);
+        }
+        catch (DataIntegrityViolationException e) {
+            log.warn("Пакет из {} мероприятий отклонён ({}), сохраняем по одному", events.size(), e.getMessage());
+            return upsertOneByOne(events);
+        }
+    }
+
+    private UpsertResult upsertOneByOne(Collection<Event> events) {
+        int inserted = 0;
+        int updated  = 0;
+        for (Event event : events) {
+            try {
+                UpsertResult result = upsertBatch(List.of(event));
+                inserted += result.inserted();
+                updated  += result.updated();
+            }
+            catch (DataIntegrityViolationException e) {
+                log.warn("Мероприятие {} отклонено базой: {}", event.getSourceUrl(), e.getMessage());
+            }
+        }
+        return new UpsertResult(inserted, updated);
+    }
+
+    private UpsertResult upsertBatch(Collection<Event> events) {
+        int n = events.size();
+        String[] titles     = new String[n];
+        String[] venues     = new String[n];
+        String[] prices     = new String[n];
+        Integer[] priceMins  = new Integer[n];
+        Integer[] priceMaxes = new Integer[n];
+        String[] imageUrls  = new String[n];
+        String[] sourceUrls = new String[n];
+        LocalDate[] eventDates = new LocalDate[n];
+        String[] fingerprints = new String[n];
+        int i = 0;
+        for (Event e : events) {
+            titles[i]     = e.getTitle();
+            venues[i]     = e.getVenue();
+            prices[i]     = e.getPrice();
+            priceMins[i]  = e.getPriceMin();
+            priceMaxes[i] = e.getPriceMax();
+            imageUrls[i]  = e.getImageUrl();
+            sourceUrls[i] = e.getSourceUrl();
+            eventDates[i] = e.getEventDate();
+            fingerprints[i] = e.getFingerprint();
+            i++;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<String> urls = List.of(sourceUrls);
+        int existing = (int) eventRepository.countBySourceUrlIn(urls);
+        int written = eventRepository.upsertAll(titles, venues, prices, priceMins, priceMaxes, imageUrls,
+                sourceUrls, eventDates, fingerprints, now);
+        int touched = eventRepository.touchLastSeen(urls, now, now.minus(LAST_SEEN_RESOLUTION));
+        int inserted = Math.min(written, n - existing);
+        log.debug("Без изменений: {}, отметка last_seen_at обновлена у {}", n - written, touched);
+        return new UpsertResult(inserted, written - inserted);
     }
 
-    private int processCard(Element card) {
+    private Event parseCard(Element card) {
         Element titleLink = card.selectFirst("div.product__title a");
         if (titleLink == null)
-            return 0;
+            return null;
 
         String path = titleLink.attr("href");
         String href = path.startsWith("http") ? path : BASE_URL + path;
         if (href.isBlank())
-            return 0;
+            return null;
 
         String title = titleLink.text().trim();
         if (title.isBlank())
-            return 0;
+            return null;
 
         Element imgEl = card.selectFirst("div.product__img img");
         String imageUrl = null;
@@ -156,20 +285,31 @@ public class AfishaServiceImpl implements AfishaService {
                 price = null;
         }
 
-        Event event = eventRepository.findBySourceUrl(href).orElseGet(Event::new);
-        boolean isNew = event.getId() == null;
-
+        Event event = new Event();
         event.setTitle(title);
         event.setVenue(venue);
         event.setPrice(price);
-        event.setImageUrl(imageUrl);
+        EventPriceParser.PriceRange priceRange = EventPriceParser.parse(price);
+        event.setPriceMin(priceRange.min());
+        event.setPriceMax(priceRange.max());
+        event.setImageUrl(imageProxyService.proxyUrl(imageUrl));
         event.setSourceUrl(href);
         event.setEventDate(eventDate != null ? eventDate : LocalDate.now());
-        event.setParsedAt(LocalDateTime.now());
+        event.setFingerprint(ContentFingerprint.of(event.getTitle(), event.getVenue(), event.getPrice(),
+                event.getPriceMin(), event.getPriceMax(),
+                event.getImageUrl(), event.getEventDate()));
+        log.debug("Разобрано: {} / {} / {}", title, dateText, venue);
+        return event;
+    }
+
+    private record UpsertResult(int inserted, int updated) { }
 
-        eventRepository.save(event);
-        log.debug("{}: {} / {} / {}", isNew ? "Сохранено" : "Обновлено", title, dateText, venue);
-        return isNew ? 1 : 0;
+    private record FetchedPage(int pageNum, Elements cards) {
+        static final FetchedPage END = new FetchedPage(-1, new Elements());
+    }
+
+    private record ParsedPage(int pageNum, Collection<Event> events) {
+        static final ParsedPage END = new ParsedPage(-1, List.of());
     }
 
     private static final java.util.Map<String, Integer> RU_MONTHS = new java.util.HashMap<>();
@@ -238,18 +378,52 @@ public class AfishaServiceImpl implements AfishaService {
 
     @Override
     public Page<EventDto> getAll(Pageable pageable) {
-        return eventRepository.findAllByEventDateGreaterThanEqualOrderByEventDateAsc(LocalDate.now(), pageable).map(this::toDto);
+        LocalDate today = LocalDate.now();
+        if (!calendarIndex.isReady())
+            calendarIndex.refresh();
+        if (calendarIndex.covers(today))
+            return calendarIndex.search(null, today, null, null, false, pageable);
+        return eventRepository.findAllByEventDateGreaterThanEqualOrderByEventDateAsc(LocalDate.now(), pageable).map(AfishaServiceImpl::toDto);
     }
 
     @Override
-    public Page<EventDto> search(String title, String dateFrom, String dateTo, Pageable pageable) {
+    public Page<EventDto> search(String title, String dateFrom, String dateTo, Integer priceMax, String sort,
+                                 Pageable pageable) {
         String titleParam = (title != null && !title.isBlank()) ? title.trim() : null;
         LocalDate from = parseIsoDate(dateFrom);
         LocalDate to   = parseIsoDate(dateTo);
         if (from == null) {
             from = LocalDate.now();
         }
-        return eventRepository.search(titleParam, from, to, pageable).map(this::toDto);
+        boolean byPrice = "price".equalsIgnoreCase(sort);
+        if (!calendarIndex.isReady())
+            calendarIndex.refresh();
+        if (calendarIndex.covers(from))
+            return calendarIndex.search(titleParam, from, to, priceMax, byPrice, pageable);
+        Page<Event> events;
+        if (priceMax != null)
+            events = byPrice
+                    ? eventRepository.searchUpToPriceOrderByPrice(titleParam, from, to, priceMax, pageable)
+                    : eventRepository.searchUpToPrice(titleParam, from, to, priceMax, pageable);
+        else
+            events = byPrice
+                    ? eventRepository.searchOrderByPrice(titleParam, from, to, pageable)
+                    : eventRepository.search(titleParam, from, to, pageable);
+        return events.map(AfishaServiceImpl::toDto);
+    }
+
+    @Override
+    public List<EventDayCountDto> getCalendar(String month) {
+        YearMonth yearMonth;
+        try {
+            yearMonth = month != null && !month.isBlank() ? YearMonth.parse(month.trim()) : YearMonth.now();
+        }
+        catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Месяц должен быть в формате ГГГГ-ММ");
+        }
+        if (!calendarIndex.isReady())
+            calendarIndex.refresh();
+        return calendarIndex.countByDay(yearMonth);
     }
 
     @Override
@@ -270,12 +444,14 @@ public class AfishaServiceImpl implements AfishaService {
         return null;
     }
 
-    private EventDto toDto(Event e) {
+    static EventDto toDto(Event e) {
         EventDto dto = new EventDto();
         dto.setId(e.getId());
         dto.setTitle(e.getTitle());
         dto.setVenue(e.getVenue());
         dto.setPrice(e.getPrice());
+        dto.setPriceMin(e.getPriceMin());
+        dto.setPriceMax(e.getPriceMax());
         dto.setImageUrl(e.getImageUrl());
         dto.setSourceUrl(e.getSourceUrl());
         dto.setEventDate(e.getEventDate());
@@ -288,6 +464,8 @@ public class AfishaServiceImpl implements AfishaService {
         dto.setTitle(e.getTitle());
         dto.setVenue(e.getVenue());
         dto.setPrice(e.getPrice());
+        dto.setPriceMin(e.getPriceMin());
+        dto.setPriceMax(e.getPriceMax());
         dto.setImageUrl(e.getImageUrl());
         dto.setSourceUrl(e.getSourceUrl());
         dto.setEventDate(e.getEventDate());
@@ -0,0 +1,112 @@
+package com.example.CityPortal.afisha.services.impls;
+
+import com.example.CityPortal.afisha.dtos.EventDayCountDto;
+import com.example.CityPortal.afisha.dtos.EventDto;
+import com.example.CityPortal.afisha.repository.EventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EventCalendarIndex {
+    private final EventRepository eventRepository;
+    private volatile Snapshot snapshot;
+
+    public void refresh() {
+        LocalDate today = LocalDate.now();
+        try {
+            List<EventDto> upcoming = eventRepository.findAllByEventDateGreaterThanEqualOrderByEventDateAscIdAsc(today)
+                    .stream()
+                    .map(AfishaServiceImpl::toDto)
+                    .toList();
+            replace(upcoming, today);
+            log.info("Календарь афиши перестроен: {} предстоящих мероприятий", upcoming.size());
+        }
+        catch (Exception e) {
+            log.warn("Не удалось перестроить календарь афиши: {}", e.getMessage());
+        }
+    }
+
+    boolean isReady() {
+        return snapshot != null;
+    }
+
+    void invalidate() {
+        snapshot = null;
+    }
+
+    private void replace(Collection<EventDto> upcoming, LocalDate since) {
+        TreeMap<LocalDate, List<EventDto>> byDate = new TreeMap<>();
+        for (EventDto event : upcoming) {
+            if (event.getEventDate() != null && !event.getEventDate().isBefore(since))
+                byDate.computeIfAbsent(event.getEventDate(), d -> new ArrayList<>()).add(event);
+        }
+        byDate.replaceAll((date, events) -> List.copyOf(events));
+        snapshot = new Snapshot(since, Collections.unmodifiableNavigableMap(byDate));
+    }
+
+    boolean covers(LocalDate from) {
+        Snapshot current = snapshot;
+        return current != null && from != null && !from.isBefore(current.since());
+    }
+
+    private static final Comparator<EventDto> BY_PRICE = Comparator.comparing(EventDto::getPriceMin,
+            Comparator.nullsLast(Comparator.naturalOrder()));
+
+    Page<EventDto> search(String title, LocalDate from, LocalDate to, Integer priceMax, boolean byPrice,
+                          Pageable pageable) {
+        Snapshot current = snapshot;
+        NavigableMap<LocalDate, List<EventDto>> range = to != null
+                ? (to.isBefore(from) ? Collections.emptyNavigableMap() : current.byDate().subMap(from, true, to, true))
+                : current.byDate().tailMap(from, true);
+
+        String needle = title != null ? title.toLowerCase(Locale.ROOT) : null;
+        List<EventDto> matched = new ArrayList<>();
+        for (List<EventDto> day : range.values()) {
+            for (EventDto event : day) {
+                if (needle != null && (event.getTitle() == null
+                        || !event.getTitle().toLowerCase(Locale.ROOT).contains(needle)))
+                    continue;
+                if (priceMax != null && (event.getPriceMin() == null || event.getPriceMin() > priceMax))
+                    continue;
+                matched.add(event);
+            }
+        }
+        if (byPrice)
+            matched.sort(BY_PRICE);
+
+        int start = (int) Math.min(pageable.getOffset(), matched.size());
+        int end = Math.min(start + pageable.getPageSize(), matched.size());
+        return new PageImpl<>(matched.subList(start, end), pageable, matched.size());
+    }
+
+    List<EventDayCountDto> countByDay(YearMonth month) {
+        Snapshot current = snapshot;
+        List<EventDayCountDto> days = new ArrayList<>();
+        if (current == null)
+            return days;
+        for (Map.Entry<LocalDate, List<EventDto>> entry
+                : current.byDate().subMap(month.atDay(1), true, month.atEndOfMonth(), true).entrySet())
+            days.add(new EventDayCountDto(entry.getKey(), entry.getValue().size()));
+        return days;
+    }
+
+    private record Snapshot(LocalDate since, NavigableMap<LocalDate, List<EventDto>> byDate) { }
+}
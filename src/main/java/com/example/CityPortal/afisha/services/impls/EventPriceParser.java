@@ -0,0 +1,51 @@
+package com.example.CityPortal.afisha.services.impls;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+final class EventPriceParser {
+    private static final Pattern AMOUNT_PATTERN = Pattern.compile("\\d{1,3}(?:[\\s\\u00A0\\u202F]\\d{3})+(?!\\d)|\\d+");
+    private static final Pattern SPACE_PATTERN  = Pattern.compile("[\\s\\u00A0\\u202F]");
+    private static final Pattern FROM_PATTERN   = Pattern.compile("(?U)\\bот[\\s\\u00A0\\u202F]*\\d");
+    private static final Pattern UP_TO_PATTERN  = Pattern.compile("(?U)\\bдо[\\s\\u00A0\\u202F]*\\d");
+
+    private EventPriceParser() { }
+
+    static PriceRange parse(String raw) {
+        if (raw == null || raw.isBlank())
+            return PriceRange.UNKNOWN;
+
+        String text = raw.toLowerCase(Locale.ROOT);
+        if (text.contains("бесплат"))
+            return new PriceRange(0, 0);
+
+        List<Integer> amounts = new ArrayList<>();
+        Matcher m = AMOUNT_PATTERN.matcher(text);
+        while (m.find()) {
+            try {
+                amounts.add(Integer.parseInt(SPACE_PATTERN.matcher(m.group()).replaceAll("")));
+            }
+            catch (NumberFormatException ignored) {
+            }
+        }
+        if (amounts.isEmpty())
+            return PriceRange.UNKNOWN;
+
+        int min = amounts.stream().mapToInt(Integer::intValue).min().getAsInt();
+        int max = amounts.stream().mapToInt(Integer::intValue).max().getAsInt();
+        if (amounts.size() == 1) {
+            if (FROM_PATTERN.matcher(text).find())
+                return new PriceRange(min, null);
+            if (UP_TO_PATTERN.matcher(text).find())
+                return new PriceRange(0, max);
+        }
+        return new PriceRange(min, max);
+    }
+
+    record PriceRange(Integer min, Integer max) {
+        static final PriceRange UNKNOWN = new PriceRange(null, null);
+    }
+}
@@ -60,7 +60,8 @@ public class WebSecurityConfig {
                                 "/afisha", "/afisha/**", "/afisha.html",
                                 "/api/afisha/**",
                                 "/routes", "/routes.html",
-                                "/api/routes/**"
+                                "/api/routes/**",
+                                "/api/images/**"
                         ).permitAll()
                         .requestMatchers("/admin/**").hasRole("ADMIN")
                         .requestMatchers("/api/auth/account").authenticated()
@@ -0,0 +1,28 @@
+package com.example.CityPortal.crawler;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public final class ContentFingerprint {
+    private static final char FIELD_SEPARATOR = '\u001F';
+    private static final char NULL_MARKER     = '\u0000';
+
+    private ContentFingerprint() { }
+
+    public static String of(Object... fields) {
+        StringBuilder sb = new StringBuilder();
+        for (Object field : fields) {
+            sb.append(field != null ? field.toString() : String.valueOf(NULL_MARKER));
+            sb.append(FIELD_SEPARATOR);
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+}
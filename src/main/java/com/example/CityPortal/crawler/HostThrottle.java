@@ -0,0 +1,64 @@
+package com.example.CityPortal.crawler;
+
+import com.example.CityPortal.crawler.config.CrawlerProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@RequiredArgsConstructor
+public class HostThrottle {
+    private final CrawlerProperties crawlerProperties;
+    private final ConcurrentMap<String, HostSlot> hosts = new ConcurrentHashMap<>();
+
+    public Permit acquire(String url) throws InterruptedException {
+        HostSlot slot = hosts.computeIfAbsent(hostOf(url), h -> new HostSlot(
+                new Semaphore(Math.max(1, crawlerProperties.maxConcurrentPerHost()), true),
+                new AtomicLong(System.nanoTime())));
+
+        slot.permits().acquire();
+        try {
+            long delayNanos = TimeUnit.MILLISECONDS.toNanos(crawlerProperties.politenessDelayMs());
+            long now = System.nanoTime();
+            long startAt;
+            while (true) {
+                long next = slot.nextStart().get();
+                startAt = Math.max(next, now);
+                if (slot.nextStart().compareAndSet(next, startAt + delayNanos))
+                    break;
+            }
+            long wait = startAt - now;
+            if (wait > 0)
+                TimeUnit.NANOSECONDS.sleep(wait);
+        }
+        catch (InterruptedException ie) {
+            slot.permits().release();
+            throw ie;
+        }
+        return slot.permits()::release;
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host.toLowerCase() : url;
+        }
+        catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    private record HostSlot(Semaphore permits, AtomicLong nextStart) { }
+
+    @FunctionalInterface
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.CityPortal.crawler;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+
+public final class TrustAllSsl {
+    public static final SSLSocketFactory SOCKET_FACTORY = buildSocketFactory();
+
+    private TrustAllSsl() { }
+
+    private static SSLSocketFactory buildSocketFactory() {
+        try {
+            TrustManager[] trustAll = {
+                new X509TrustManager() {
+                    public X509Certificate[] getAcceptedIssuers() { return new X509Certificate[0]; }
+                    public void checkClientTrusted(X509Certificate[] c, String a) {}
+                    public void checkServerTrusted(X509Certificate[] c, String a) {}
+                }
+            };
+            SSLContext ctx = SSLContext.getInstance("TLS");
+            ctx.init(null, trustAll, new SecureRandom());
+            return ctx.getSocketFactory();
+        }
+        catch (NoSuchAlgorithmException | KeyManagementException e) {
+            throw new IllegalStateException("Не удалось создать TrustAll SSLContext", e);
+        }
+    }
+}
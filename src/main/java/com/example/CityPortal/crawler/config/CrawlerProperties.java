@@ -0,0 +1,10 @@
+package com.example.CityPortal.crawler.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "crawler")
+public record CrawlerProperties(
+        @DefaultValue("4") int maxConcurrentPerHost,
+        @DefaultValue("300") long politenessDelayMs
+) { }
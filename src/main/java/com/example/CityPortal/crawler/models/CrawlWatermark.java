@@ -0,0 +1,24 @@
+package com.example.CityPortal.crawler.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "crawl_watermark")
+public class CrawlWatermark {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "source", nullable = false, length = 128, unique = true)
+    private String source;
+
+    @Column(name = "last_item_id")
+    private Long lastItemId;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,27 @@
+package com.example.CityPortal.crawler.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "http_validator")
+public class HttpValidator {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "url", nullable = false, length = 1024, unique = true)
+    private String url;
+
+    @Column(name = "etag", length = 512)
+    private String etag;
+
+    @Column(name = "last_modified", length = 128)
+    private String lastModified;
+
+    @Column(name = "checked_at")
+    private LocalDateTime checkedAt;
+}
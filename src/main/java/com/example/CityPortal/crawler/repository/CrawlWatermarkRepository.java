@@ -0,0 +1,10 @@
+package com.example.CityPortal.crawler.repository;
+
+import com.example.CityPortal.crawler.models.CrawlWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface CrawlWatermarkRepository extends JpaRepository<CrawlWatermark, Long> {
+    Optional<CrawlWatermark> findBySource(String source);
+}
@@ -0,0 +1,30 @@
+package com.example.CityPortal.crawler.repository;
+
+import com.example.CityPortal.crawler.models.HttpValidator;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface HttpValidatorRepository extends JpaRepository<HttpValidator, Long> {
+    Optional<HttpValidator> findByUrl(String url);
+    List<HttpValidator> findByUrlIn(Collection<String> urls);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO http_validator (url, etag, last_modified, checked_at) " +
+           "VALUES (:url, :etag, :lastModified, :checkedAt) " +
+           "ON CONFLICT (url) DO UPDATE SET etag = EXCLUDED.etag, " +
+           "last_modified = EXCLUDED.last_modified, checked_at = EXCLUDED.checked_at",
+           nativeQuery = true)
+    void upsert(@Param("url") String url,
+                @Param("etag") String etag,
+                @Param("lastModified") String lastModified,
+                @Param("checkedAt") LocalDateTime checkedAt);
+}
@@ -0,0 +1,176 @@
+package com.example.CityPortal.images;
+
+import com.example.CityPortal.images.config.ImageProxyProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImageDiskCache {
+    private static final Pattern FILE_NAME_PATTERN = Pattern.compile("([0-9a-f]+)-w(\\d+)\\.(\\w+)");
+    private static final long EVICTION_GRACE_MS = 60_000;
+
+    private final ImageProxyProperties properties;
+    private final ConcurrentMap<String, CachedImage> index = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private Path root;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Path.of(properties.cacheDir()).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        try (Stream<Path> files = Files.walk(root, 3)) {
+            files.filter(Files::isRegularFile).forEach(this::restore);
+        }
+        log.info("Кэш изображений {}: {} изображений, {} КБ", root, index.size(), totalBytes.get() / 1024);
+        evictIfNeeded();
+    }
+
+    public Path find(String hash, int width, String extension) {
+        CachedImage image = index.get(hash);
+        if (image == null)
+            return null;
+        Path path = image.variants().get(variantKey(width, extension));
+        if (path == null)
+            path = original(image);
+        if (path == null || !Files.isRegularFile(path))
+            return null;
+        image.touch();
+        return path;
+    }
+
+    public void store(String hash, int width, String extension, byte[] data) throws IOException {
+        Path dir = shardDir(hash);
+        Files.createDirectories(dir);
+        Path target = dir.resolve(hash + "-w" + width + "." + extension);
+        long previousSize = Files.isRegularFile(target) ? Files.size(target) : 0;
+        Path tmp = Files.createTempFile(dir, hash, ".tmp");
+        try {
+            Files.write(tmp, data);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            Files.deleteIfExists(tmp);
+        }
+
+        CachedImage image = index.computeIfAbsent(hash, h -> new CachedImage());
+        Path previous = image.variants().put(variantKey(width, extension), target);
+        long delta = previous == null ? data.length : data.length - previousSize;
+        image.bytes().addAndGet(delta);
+        totalBytes.addAndGet(delta);
+        image.touch();
+        evictIfNeeded();
+    }
+
+    private void restore(Path file) {
+        String name = file.getFileName().toString();
+        if (name.endsWith(".tmp")) {
+            try {
+                Files.deleteIfExists(file);
+            }
+            catch (IOException ignored) {
+            }
+            return;
+        }
+        Matcher m = FILE_NAME_PATTERN.matcher(name);
+        if (!m.matches())
+            return;
+        try {
+            long size = Files.size(file);
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            CachedImage image = index.computeIfAbsent(m.group(1), h -> new CachedImage());
+            image.variants().put(variantKey(Integer.parseInt(m.group(2)), m.group(3)), file);
+            image.bytes().addAndGet(size);
+            image.lastAccess().accumulateAndGet(modified, Math::max);
+            totalBytes.addAndGet(size);
+        }
+        catch (IOException e) {
+            log.warn("Кэш изображений: не удалось прочитать {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void evictIfNeeded() {
+        long limit = properties.maxCacheBytes();
+        if (totalBytes.get() <= limit || !evictionLock.tryLock())
+            return;
+        try {
+            long target = limit - limit / 10;
+            long recent = System.currentTimeMillis() - EVICTION_GRACE_MS;
+            List<Map.Entry<String, CachedImage>> byAge = new ArrayList<>(index.entrySet());
+            byAge.sort(Comparator.comparingLong(e -> e.getValue().lastAccess().get()));
+            int evicted = 0;
+            for (Map.Entry<String, CachedImage> entry : byAge) {
+                if (totalBytes.get() <= target)
+                    break;
+                if (entry.getValue().lastAccess().get() > recent)
+                    continue;
+                if (index.remove(entry.getKey(), entry.getValue())) {
+                    delete(entry.getKey());
+                    totalBytes.addAndGet(-entry.getValue().bytes().get());
+                    evicted++;
+                }
+            }
+            log.info("Кэш изображений: вытеснено {} изображений, занято {} КБ", evicted, totalBytes.get() / 1024);
+        }
+        finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void delete(String hash) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(shardDir(hash), hash + "-*")) {
+            for (Path file : files)
+                Files.deleteIfExists(file);
+        }
+        catch (IOException e) {
+            log.warn("Кэш изображений: не удалось удалить {}: {}", hash, e.getMessage());
+        }
+    }
+
+    private static Path original(CachedImage image) {
+        for (Map.Entry<String, Path> variant : image.variants().entrySet()) {
+            if (variant.getKey().startsWith("0."))
+                return variant.getValue();
+        }
+        return null;
+    }
+
+    private static String variantKey(int width, String extension) {
+        return width + "." + extension;
+    }
+
+    private Path shardDir(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4));
+    }
+
+    private record CachedImage(ConcurrentMap<String, Path> variants, AtomicLong bytes, AtomicLong lastAccess) {
+        CachedImage() {
+            this(new ConcurrentHashMap<>(), new AtomicLong(), new AtomicLong(System.currentTimeMillis()));
+        }
+
+        void touch() {
+            lastAccess.set(System.currentTimeMillis());
+        }
+    }
+}
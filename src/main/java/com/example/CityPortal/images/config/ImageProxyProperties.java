@@ -0,0 +1,18 @@
+package com.example.CityPortal.images.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+@ConfigurationProperties(prefix = "images")
+public record ImageProxyProperties(
+        @DefaultValue("./data/image-cache") String cacheDir,
+        @DefaultValue("536870912") long maxCacheBytes,
+        @DefaultValue({"320", "640", "1280"}) List<Integer> widths,
+        @DefaultValue("640") int defaultWidth,
+        @DefaultValue("10485760") int maxSourceBytes,
+        @DefaultValue("8") int maxDownloadsPerHost,
+        @DefaultValue("0.82") float jpegQuality,
+        @DefaultValue("0.8") float webpQuality
+) { }
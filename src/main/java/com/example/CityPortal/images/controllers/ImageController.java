@@ -0,0 +1,68 @@
+package com.example.CityPortal.images.controllers;
+
+import com.example.CityPortal.images.dtos.ImageVariant;
+import com.example.CityPortal.images.services.ImageProxyService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/images")
+@RequiredArgsConstructor
+public class ImageController {
+    private static final String SENDFILE_SUPPORT  = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START    = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END      = "org.apache.tomcat.sendfile.end";
+    private static final String CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(365))
+            .cachePublic().immutable().getHeaderValue();
+
+    private final ImageProxyService imageProxyService;
+
+    @GetMapping("/{hash}")
+    public void getImage(@PathVariable String hash,
+                         @RequestParam(required = false) Integer w,
+                         @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        boolean acceptWebp = accept != null && accept.contains("image/webp");
+        ImageVariant variant = imageProxyService.getVariant(hash, w, acceptWebp);
+        String etag = "\"" + hash + "-" + variant.width() + "-" + variant.contentType().substring(6) + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(variant.contentType());
+        response.setContentLengthLong(variant.size());
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, variant.path().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, variant.size());
+            return;
+        }
+
+        try (FileChannel file = FileChannel.open(variant.path(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < variant.size())
+                position += file.transferTo(position, variant.size() - position, out);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.CityPortal.images.dtos;
+
+import java.nio.file.Path;
+
+public record ImageVariant(
+        Path path,
+        String contentType,
+        int width,
+        long size
+) { }
@@ -0,0 +1,24 @@
+package com.example.CityPortal.images.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "proxied_image")
+public class ProxiedImage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "hash", nullable = false, length = 64, unique = true)
+    private String hash;
+
+    @Column(name = "source_url", nullable = false, length = 1024)
+    private String sourceUrl;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,24 @@
+package com.example.CityPortal.images.repository;
+
+import com.example.CityPortal.images.models.ProxiedImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface ProxiedImageRepository extends JpaRepository<ProxiedImage, Long> {
+    Optional<ProxiedImage> findByHash(String hash);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO proxied_image (hash, source_url, created_at) " +
+           "VALUES (:hash, :sourceUrl, :createdAt) ON CONFLICT (hash) DO NOTHING",
+           nativeQuery = true)
+    void register(@Param("hash") String hash,
+                  @Param("sourceUrl") String sourceUrl,
+                  @Param("createdAt") LocalDateTime createdAt);
+}
@@ -0,0 +1,8 @@
+package com.example.CityPortal.images.services;
+
+import com.example.CityPortal.images.dtos.ImageVariant;
+
+public interface ImageProxyService {
+    String proxyUrl(String sourceUrl);
+    ImageVariant getVariant(String hash, Integer width, boolean acceptWebp);
+}
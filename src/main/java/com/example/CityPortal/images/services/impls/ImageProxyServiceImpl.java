@@ -0,0 +1,336 @@
+package com.example.CityPortal.images.services.impls;
+
+import com.example.CityPortal.crawler.TrustAllSsl;
+import com.example.CityPortal.images.ImageDiskCache;
+import com.example.CityPortal.images.config.ImageProxyProperties;
+import com.example.CityPortal.images.dtos.ImageVariant;
+import com.example.CityPortal.images.models.ProxiedImage;
+import com.example.CityPortal.images.repository.ProxiedImageRepository;
+import com.example.CityPortal.images.services.ImageProxyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageProxyServiceImpl implements ImageProxyService {
+    private static final String PROXY_PREFIX = "/api/images/";
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{40}");
+    private static final long MAX_PIXELS = 40_000_000L;
+    private static final int TIMEOUT_MS = 20_000;
+    private static final boolean WEBP_SUPPORTED = webpWriterAvailable();
+
+    private final ImageProxyProperties properties;
+    private final ImageDiskCache diskCache;
+    private final ProxiedImageRepository proxiedImageRepository;
+    private final Set<String> registered = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<String, CompletableFuture<Void>> inflight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Semaphore> downloadPermits = new ConcurrentHashMap<>();
+
+    @Override
+    public String proxyUrl(String sourceUrl) {
+        if (sourceUrl == null || sourceUrl.isBlank())
+            return sourceUrl;
+        if (!sourceUrl.startsWith("http://") && !sourceUrl.startsWith("https://"))
+            return sourceUrl;
+
+        String hash = hashOf(sourceUrl);
+        if (!registered.contains(hash)) {
+            try {
+                proxiedImageRepository.register(hash, sourceUrl, LocalDateTime.now());
+                registered.add(hash);
+            }
+            catch (Exception e) {
+                log.warn("Не удалось зарегистрировать изображение {}: {}", sourceUrl, e.getMessage());
+                return sourceUrl;
+            }
+        }
+        return PROXY_PREFIX + hash;
+    }
+
+    @Override
+    public ImageVariant getVariant(String hash, Integer width, boolean acceptWebp) {
+        if (hash == null || !HASH_PATTERN.matcher(hash).matches())
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Некорректный идентификатор изображения");
+
+        int target = pickWidth(width);
+        String extension = acceptWebp && WEBP_SUPPORTED ? "webp" : "jpg";
+        Path path = diskCache.find(hash, target, extension);
+        if (path == null) {
+            materializeOnce(hash);
+            path = diskCache.find(hash, target, extension);
+            if (path == null)
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Изображение не найдено");
+        }
+
+        try {
+            return new ImageVariant(path, contentTypeOf(path), target, Files.size(path));
+        }
+        catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Изображение не найдено");
+        }
+    }
+
+    private void materializeOnce(String hash) {
+        CompletableFuture<Void> mine = new CompletableFuture<>();
+        CompletableFuture<Void> running = inflight.putIfAbsent(hash, mine);
+        if (running != null) {
+            try {
+                running.join();
+            }
+            catch (CompletionException e) {
+                if (e.getCause() instanceof ResponseStatusException rse)
+                    throw rse;
+                throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Не удалось получить изображение");
+            }
+            return;
+        }
+
+        try {
+            materialize(hash);
+            mine.complete(null);
+        }
+        catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        finally {
+            inflight.remove(hash, mine);
+        }
+    }
+
+    private void materialize(String hash) {
+        ProxiedImage image = proxiedImageRepository.findByHash(hash)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Изображение не найдено"));
+
+        byte[] original = download(image.getSourceUrl());
+        try {
+            BufferedImage decoded = decode(original);
+            if (decoded == null) {
+                String extension = passthroughExtension(original);
+                if (extension == null)
+                    throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Неподдерживаемый формат изображения");
+                diskCache.store(hash, 0, extension, original);
+                return;
+            }
+            for (int width : properties.widths()) {
+                BufferedImage resized = resize(decoded, width);
+                diskCache.store(hash, width, "jpg", encode(resized, "jpeg", properties.jpegQuality(), null));
+                if (WEBP_SUPPORTED)
+                    diskCache.store(hash, width, "webp", encode(resized, "webp", properties.webpQuality(), "Lossy"));
+            }
+            log.debug("Изображение {} закэшировано: {}x{}, ширин {}, форматы {}",
+                    image.getSourceUrl(), decoded.getWidth(), decoded.getHeight(), properties.widths().size(),
+                    WEBP_SUPPORTED ? "JPEG, WebP" : "JPEG");
+        }
+        catch (IOException e) {
+            log.warn("Не удалось обработать изображение {}: {}", image.getSourceUrl(), e.getMessage());
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Не удалось обработать изображение");
+        }
+    }
+
+    private byte[] download(String url) {
+        Semaphore permits = downloadPermits.computeIfAbsent(hostOf(url),
+                h -> new Semaphore(Math.max(1, properties.maxDownloadsPerHost())));
+        try {
+            if (!permits.tryAcquire(TIMEOUT_MS, TimeUnit.MILLISECONDS))
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Источник изображений перегружен");
+        }
+        catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Загрузка изображения прервана");
+        }
+
+        try {
+            return Jsoup.connect(url)
+                    .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 "
+                            + "(KHTML, like Gecko) Chrome/122.0.0.0 Safari/537.36")
+                    .header("Accept", "image/avif,image/webp,image/png,image/jpeg,image/*;q=0.8")
+                    .ignoreContentType(true)
+                    .maxBodySize(properties.maxSourceBytes())
+                    .timeout(TIMEOUT_MS)
+                    .sslSocketFactory(TrustAllSsl.SOCKET_FACTORY)
+                    .execute()
+                    .bodyAsBytes();
+        }
+        catch (IOException e) {
+            log.warn("Не удалось загрузить изображение {}: {}", url, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Не удалось загрузить изображение");
+        }
+        finally {
+            permits.release();
+        }
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host.toLowerCase(Locale.ROOT) : url;
+        }
+        catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    private static BufferedImage decode(byte[] data) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext())
+                return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS)
+                    throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Слишком большое изображение");
+                return reader.read(0);
+            }
+            finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage resize(BufferedImage source, int maxWidth) {
+        int targetWidth = Math.min(maxWidth, source.getWidth());
+        int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        while (w / 2 >= targetWidth) {
+            w /= 2;
+            h = Math.max(1, h / 2);
+            current = draw(current, w, h);
+        }
+        return draw(current, targetWidth, targetHeight);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage out = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        }
+        finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private static boolean webpWriterAvailable() {
+        try {
+            if (!ImageIO.getImageWritersByFormatName("webp").hasNext())
+                return false;
+            encode(new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB), "webp", 0.8f, "Lossy");
+            return true;
+        }
+        catch (Throwable e) {
+            log.warn("WebP-кодировщик недоступен, варианты будут только в JPEG: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static byte[] encode(BufferedImage image, String format, float quality, String compressionType)
+            throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            if (compressionType != null)
+                param.setCompressionType(compressionType);
+            param.setCompressionQuality(quality);
+            if (param.canWriteProgressive())
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        }
+        finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static String passthroughExtension(byte[] data) {
+        if (data.length >= 12
+                && new String(data, 0, 4, StandardCharsets.US_ASCII).equals("RIFF")
+                && new String(data, 8, 4, StandardCharsets.US_ASCII).equals("WEBP"))
+            return "webp";
+        if (data.length >= 12 && new String(data, 4, 8, StandardCharsets.US_ASCII).startsWith("ftypavif"))
+            return "avif";
+        return null;
+    }
+
+    private static String contentTypeOf(Path path) {
+        String name = path.getFileName().toString();
+        String extension = name.substring(name.lastIndexOf('.') + 1);
+        return switch (extension) {
+            case "webp" -> "image/webp";
+            case "avif" -> "image/avif";
+            case "png"  -> "image/png";
+            default     -> "image/jpeg";
+        };
+    }
+
+    private int pickWidth(Integer requested) {
+        List<Integer> widths = properties.widths().stream().sorted().toList();
+        int wanted = requested != null && requested > 0 ? requested : properties.defaultWidth();
+        for (int width : widths) {
+            if (width >= wanted)
+                return width;
+        }
+        return widths.getLast();
+    }
+
+    private static String hashOf(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 20);
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.CityPortal.news.config;
+
+import com.example.CityPortal.news.models.DeflateTextConverter;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+@Slf4j
+@Configuration
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class NewsContentMigration {
+    private static final String SCHEMA_NAME = "news";
+    private static final int SCHEMA_VERSION = 1;
+    private static final int BATCH_SIZE = 100;
+    private static final DeflateTextConverter DEFLATE = new DeflateTextConverter();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                "name VARCHAR(64) PRIMARY KEY, version INTEGER NOT NULL, applied_at TIMESTAMP NOT NULL)");
+        Integer current = jdbcTemplate.query("SELECT version FROM schema_version WHERE name = ?",
+                rs -> rs.next() ? rs.getInt(1) : 0, SCHEMA_NAME);
+        if (current != null && current >= SCHEMA_VERSION)
+            return;
+
+        try {
+            migrateToV1();
+        }
+        catch (Exception e) {
+            throw new IllegalStateException("Миграция таблицы news до версии " + SCHEMA_VERSION + " не выполнена", e);
+        }
+    }
+
+    private void migrateToV1() {
+        long sizeBefore = tableSize();
+        boolean legacyContent = Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM information_schema.columns " +
+                "WHERE table_name = 'news' AND column_name = 'content')", Boolean.class));
+        log.info("Миграция таблицы news до версии {}: сжатие текстов {}", SCHEMA_VERSION,
+                legacyContent ? "и удаление колонки content" : "не требуется");
+
+        jdbcTemplate.execute("CREATE OR REPLACE FUNCTION news_search_vector(title text, description text, body text) " +
+                "RETURNS tsvector AS $$ " +
+                "SELECT setweight(to_tsvector('russian', COALESCE(title, '')), 'A') || " +
+                "setweight(to_tsvector('russian', COALESCE(description, '')), 'B') || " +
+                "setweight(to_tsvector('russian', COALESCE(body, '')), 'C') " +
+                "$$ LANGUAGE sql IMMUTABLE");
+        jdbcTemplate.execute("ALTER TABLE news ADD COLUMN IF NOT EXISTS search_vector tsvector");
+        jdbcTemplate.execute("ALTER TABLE news ALTER COLUMN search_vector DROP EXPRESSION IF EXISTS");
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS news_search_vector_trg ON news");
+        jdbcTemplate.execute("DROP FUNCTION IF EXISTS news_search_vector_update()");
+        jdbcTemplate.execute("ALTER TABLE news DROP COLUMN IF EXISTS search_body");
+
+        String select = "SELECT id, " + (legacyContent ? "content" : "NULL") + ", content_deflated FROM news " +
+                "WHERE id > ? ORDER BY id LIMIT " + BATCH_SIZE;
+        long afterId = 0;
+        int migrated = 0;
+        List<Object[]> batch;
+        while (!(batch = jdbcTemplate.query(select, (rs, rowNum) -> {
+            byte[] deflated = rs.getBytes(3);
+            String text = deflated != null ? DEFLATE.convertToEntityAttribute(deflated) : rs.getString(2);
+            return new Object[] { deflated != null ? deflated : DEFLATE.convertToDatabaseColumn(text), text, rs.getLong(1) };
+        }, afterId)).isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE news SET content_deflated = ?, " +
+                    "search_vector = news_search_vector(title, description, ?) WHERE id = ?", batch);
+            migrated += batch.size();
+            afterId = (Long) batch.getLast()[2];
+        }
+
+        jdbcTemplate.execute("ALTER TABLE news DROP COLUMN IF EXISTS content");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_news_search_vector ON news USING GIN (search_vector)");
+        jdbcTemplate.update("INSERT INTO schema_version (name, version, applied_at) VALUES (?, ?, now()) " +
+                "ON CONFLICT (name) DO UPDATE SET version = EXCLUDED.version, applied_at = EXCLUDED.applied_at",
+                SCHEMA_NAME, SCHEMA_VERSION);
+
+        log.info("Миграция таблицы news завершена: обработано {} записей, размер таблицы {} КБ → {} КБ " +
+                        "(место удалённой колонки и старых версий строк освободится после VACUUM FULL)",
+                migrated, sizeBefore / 1024, tableSize() / 1024);
+    }
+
+    private long tableSize() {
+        Long size = jdbcTemplate.queryForObject("SELECT pg_total_relation_size('news')", Long.class);
+        return size != null ? size : 0;
+    }
+}
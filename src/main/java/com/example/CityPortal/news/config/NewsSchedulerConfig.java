@@ -20,4 +20,16 @@ public class NewsSchedulerConfig {
         int count = newsService.fetchAndSave();
         log.info("Плановый парсинг завершён, добавлено новостей: {}", count);
     }
+
+    @Scheduled(fixedDelayString = "${news.revalidate.interval-ms:21600000}", initialDelayString = "${news.revalidate.initial-delay-ms:600000}")
+    public void scheduledRevalidate() {
+        log.info("Запускаем проверку изменений в недавних новостях...");
+        try {
+            int count = newsService.revalidateRecent();
+            log.info("Проверка изменений завершена, обновлено новостей: {}", count);
+        }
+        catch (Exception e) {
+            log.error("Ошибка проверки изменений новостей: {}", e.getMessage(), e);
+        }
+    }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.example.CityPortal.news.controllers;
 
 import com.example.CityPortal.news.dtos.NewsDetailDto;
 import com.example.CityPortal.news.dtos.NewsDto;
+import com.example.CityPortal.news.dtos.NewsSliceDto;
 import com.example.CityPortal.news.services.NewsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -22,15 +23,22 @@ public class NewsController {
     public Page<NewsDto> getNews(@RequestParam(defaultValue = "0")  int page,
                                                         @RequestParam(defaultValue = "10") int size,
                                                         @RequestParam(required = false) String title,
-                                                        @RequestParam(required = false) String date) {
+                                                        @RequestParam(required = false) String date,
+                                                        @RequestParam(defaultValue = "false") boolean highlight) {
         Pageable pageable = PageRequest.of(page, Math.min(size, 50));
         boolean hasFilter = (title != null && !title.isBlank()) || (date != null && !date.isBlank());
         if (hasFilter) {
-            return newsService.search(title, date, pageable);
+            return newsService.search(title, date, highlight, pageable);
         }
         return newsService.getAll(pageable);
     }
 
+    @GetMapping(params = "after")
+    public NewsSliceDto getNewsSlice(@RequestParam String after,
+                                     @RequestParam(defaultValue = "10") int size) {
+        return newsService.getSlice(after, Math.min(size, 50));
+    }
+
     @GetMapping("/{id}")
     public NewsDetailDto getNews(@PathVariable Long id) {
         return newsService.getById(id);
@@ -1,6 +1,7 @@
 package com.example.CityPortal.news.dtos;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import java.time.LocalDateTime;
 
@@ -14,4 +15,7 @@ public class NewsDto {
 
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime publishedAt;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String snippet;
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.example.CityPortal.news.dtos;
+
+import java.util.List;
+
+public record NewsSliceDto(
+        List<NewsDto> content,
+        String nextCursor,
+        boolean hasNext
+) { }
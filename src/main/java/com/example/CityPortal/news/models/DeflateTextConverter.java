@@ -0,0 +1,47 @@
+package com.example.CityPortal.news.models;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+@Converter
+public class DeflateTextConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String text) {
+        if (text == null)
+            return null;
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 3));
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(out, deflater)) {
+            deflate.write(raw);
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Не удалось сжать текст новости", e);
+        }
+        finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] data) {
+        if (data == null)
+            return null;
+        try (InflaterInputStream inflate = new InflaterInputStream(new ByteArrayInputStream(data))) {
+            return new String(inflate.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Не удалось распаковать текст новости", e);
+        }
+    }
+}
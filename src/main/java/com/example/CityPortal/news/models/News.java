@@ -6,7 +6,9 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "news")
+@Table(name = "news", indexes = {
+        @Index(name = "idx_news_published_at_id", columnList = "published_at DESC, id DESC")
+})
 public class News {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -18,9 +20,13 @@ public class News {
     @Column(name = "description", columnDefinition = "TEXT")
     private String description;
 
-    @Column(name = "content", columnDefinition = "TEXT")
+    @Convert(converter = DeflateTextConverter.class)
+    @Column(name = "content_deflated", columnDefinition = "bytea")
     private String content;
 
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Column(name = "image_url", length = 1024)
     private String imageUrl;
 
@@ -32,4 +38,4 @@ public class News {
 
     @Column(name = "parsed_at")
     private LocalDateTime parsedAt;
-}
\ No newline at end of file
+}
@@ -0,0 +1,12 @@
+package com.example.CityPortal.news.repository;
+
+import java.time.LocalDateTime;
+
+public interface NewsListItem {
+    Long getId();
+    String getTitle();
+    String getDescription();
+    String getImageUrl();
+    String getSourceUrl();
+    LocalDateTime getPublishedAt();
+}
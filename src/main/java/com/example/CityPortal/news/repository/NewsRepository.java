@@ -4,27 +4,118 @@ import com.example.CityPortal.news.models.News;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 public interface NewsRepository extends JpaRepository<News, Long> {
-    boolean existsBySourceUrl(String sourceUrl);
-    Page<News> findAllByOrderByPublishedAtDesc(Pageable pageable);
+    @Query("SELECT n.sourceUrl FROM News n WHERE n.sourceUrl IN :urls")
+    Set<String> findExistingSourceUrls(@Param("urls") Collection<String> urls);
 
-    @Query(value = "SELECT * FROM news n WHERE " +
-           "(CAST(:title AS text) IS NULL OR LOWER(n.title) LIKE LOWER(CONCAT('%', CAST(:title AS text), '%'))) AND " +
+    Page<NewsListItem> findAllByOrderByPublishedAtDesc(Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO news (title, description, content_deflated, content_hash, image_url, source_url, " +
+           "published_at, parsed_at, search_vector) " +
+           "SELECT u.title, u.description, decode(u.content, 'base64'), u.content_hash, u.image_url, u.source_url, " +
+           "u.published_at, u.parsed_at, news_search_vector(u.title, u.description, u.body) " +
+           "FROM unnest(CAST(:titles AS text[]), CAST(:descriptions AS text[]), CAST(:contents AS text[]), " +
+           "CAST(:bodies AS text[]), CAST(:contentHashes AS text[]), CAST(:imageUrls AS text[]), " +
+           "CAST(:sourceUrls AS text[]), CAST(:publishedAt AS timestamp[]), CAST(:parsedAt AS timestamp[])) " +
+           "AS u(title, description, content, body, content_hash, image_url, source_url, published_at, parsed_at) " +
+           "ON CONFLICT (source_url) DO NOTHING",
+           nativeQuery = true)
+    int insertAll(@Param("titles") String[] titles,
+                  @Param("descriptions") String[] descriptions,
+                  @Param("contents") String[] contents,
+                  @Param("bodies") String[] bodies,
+                  @Param("contentHashes") String[] contentHashes,
+                  @Param("imageUrls") String[] imageUrls,
+                  @Param("sourceUrls") String[] sourceUrls,
+                  @Param("publishedAt") LocalDateTime[] publishedAt,
+                  @Param("parsedAt") LocalDateTime[] parsedAt);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE news SET description = :description, image_url = :imageUrl, " +
+           "content_deflated = decode(:content, 'base64'), content_hash = :contentHash, parsed_at = :parsedAt, " +
+           "search_vector = news_search_vector(title, :description, :body) " +
+           "WHERE id = :id",
+           nativeQuery = true)
+    int updateContent(@Param("id") Long id,
+                      @Param("description") String description,
+                      @Param("imageUrl") String imageUrl,
+                      @Param("content") String content,
+                      @Param("body") String body,
+                      @Param("contentHash") String contentHash,
+                      @Param("parsedAt") LocalDateTime parsedAt);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE news SET content_hash = :contentHash WHERE id = :id", nativeQuery = true)
+    int updateContentHash(@Param("id") Long id, @Param("contentHash") String contentHash);
+
+    @Query("SELECT n.id AS id, n.sourceUrl AS sourceUrl, n.contentHash AS contentHash FROM News n " +
+           "WHERE n.publishedAt >= :since ORDER BY n.publishedAt DESC")
+    List<NewsRevision> findRevisionsSince(@Param("since") LocalDateTime since);
+
+    @Query(value = "SELECT n.id AS id, n.title AS title, n.description AS description, " +
+           "n.image_url AS \"imageUrl\", n.source_url AS \"sourceUrl\", n.published_at AS \"publishedAt\" " +
+           "FROM news n ORDER BY n.published_at DESC, n.id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<NewsListItem> findFirstSlice(@Param("limit") int limit);
+
+    @Query(value = "SELECT n.id AS id, n.title AS title, n.description AS description, " +
+           "n.image_url AS \"imageUrl\", n.source_url AS \"sourceUrl\", n.published_at AS \"publishedAt\" " +
+           "FROM news n " +
+           "WHERE (n.published_at, n.id) < (CAST(:publishedAt AS timestamp), :id) " +
+           "ORDER BY n.published_at DESC, n.id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<NewsListItem> findSliceAfter(@Param("publishedAt") LocalDateTime publishedAt,
+                                      @Param("id") Long id,
+                                      @Param("limit") int limit);
+
+    @Query(value = "SELECT n.id AS id, n.title AS title, n.description AS description, " +
+           "n.image_url AS \"imageUrl\", n.source_url AS \"sourceUrl\", n.published_at AS \"publishedAt\" " +
+           "FROM news n WHERE " +
            "(CAST(:from AS timestamp) IS NULL OR n.published_at >= CAST(:from AS timestamp)) AND " +
            "(CAST(:to AS timestamp) IS NULL OR n.published_at < CAST(:to AS timestamp)) " +
            "ORDER BY n.published_at DESC",
            countQuery = "SELECT COUNT(*) FROM news n WHERE " +
-           "(CAST(:title AS text) IS NULL OR LOWER(n.title) LIKE LOWER(CONCAT('%', CAST(:title AS text), '%'))) AND " +
            "(CAST(:from AS timestamp) IS NULL OR n.published_at >= CAST(:from AS timestamp)) AND " +
            "(CAST(:to AS timestamp) IS NULL OR n.published_at < CAST(:to AS timestamp))",
            nativeQuery = true)
-    Page<News> search(@Param("title") String title,
-                      @Param("from") LocalDateTime from,
-                      @Param("to") LocalDateTime to,
-                      Pageable pageable);
-}
\ No newline at end of file
+    Page<NewsListItem> findByPeriod(@Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to,
+                                    Pageable pageable);
+
+    @Query(value = "SELECT n.id AS id, n.title AS title, n.description AS description, " +
+           "n.image_url AS \"imageUrl\", n.source_url AS \"sourceUrl\", n.published_at AS \"publishedAt\" " +
+           "FROM news n, plainto_tsquery('russian', CAST(:query AS text)) q WHERE " +
+           "n.search_vector @@ q AND " +
+           "(CAST(:from AS timestamp) IS NULL OR n.published_at >= CAST(:from AS timestamp)) AND " +
+           "(CAST(:to AS timestamp) IS NULL OR n.published_at < CAST(:to AS timestamp)) " +
+           "ORDER BY ts_rank(n.search_vector, q) DESC, n.published_at DESC",
+           countQuery = "SELECT COUNT(*) FROM news n, plainto_tsquery('russian', CAST(:query AS text)) q WHERE " +
+           "n.search_vector @@ q AND " +
+           "(CAST(:from AS timestamp) IS NULL OR n.published_at >= CAST(:from AS timestamp)) AND " +
+           "(CAST(:to AS timestamp) IS NULL OR n.published_at < CAST(:to AS timestamp))",
+           nativeQuery = true)
+    Page<NewsListItem> search(@Param("query") String query,
+                              @Param("from") LocalDateTime from,
+                              @Param("to") LocalDateTime to,
+                              Pageable pageable);
+
+    @Query(value = "SELECT ts_headline('russian', d.doc, plainto_tsquery('russian', CAST(:query AS text)), " +
+           "'StartSel=<mark>, StopSel=</mark>, MaxWords=35, MinWords=15') " +
+           "FROM unnest(CAST(:docs AS text[])) WITH ORDINALITY AS d(doc, ord) ORDER BY d.ord",
+           nativeQuery = true)
+    List<String> headlines(@Param("query") String query, @Param("docs") String[] docs);
+}
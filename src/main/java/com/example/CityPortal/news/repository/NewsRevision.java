@@ -0,0 +1,7 @@
+package com.example.CityPortal.news.repository;
+
+public interface NewsRevision {
+    Long getId();
+    String getSourceUrl();
+    String getContentHash();
+}
@@ -2,12 +2,15 @@ package com.example.CityPortal.news.services;
 
 import com.example.CityPortal.news.dtos.NewsDetailDto;
 import com.example.CityPortal.news.dtos.NewsDto;
+import com.example.CityPortal.news.dtos.NewsSliceDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 public interface NewsService {
     int fetchAndSave();
+    int revalidateRecent();
     Page<NewsDto> getAll(Pageable pageable);
-    Page<NewsDto> search(String title, String date, Pageable pageable);
+    NewsSliceDto getSlice(String after, int size);
+    Page<NewsDto> search(String title, String date, boolean highlight, Pageable pageable);
     NewsDetailDto getById(Long id);
 }
\ No newline at end of file
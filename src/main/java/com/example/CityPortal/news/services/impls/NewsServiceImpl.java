@@ -1,35 +1,66 @@
 package com.example.CityPortal.news.services.impls;
 
+import com.example.CityPortal.crawler.HostThrottle;
+import com.example.CityPortal.crawler.TrustAllSsl;
+import com.example.CityPortal.crawler.models.CrawlWatermark;
+import com.example.CityPortal.crawler.models.HttpValidator;
+import com.example.CityPortal.crawler.repository.CrawlWatermarkRepository;
+import com.example.CityPortal.crawler.repository.HttpValidatorRepository;
+import com.example.CityPortal.images.services.ImageProxyService;
 import com.example.CityPortal.news.dtos.NewsDetailDto;
 import com.example.CityPortal.news.dtos.NewsDto;
+import com.example.CityPortal.news.dtos.NewsSliceDto;
+import com.example.CityPortal.news.models.DeflateTextConverter;
 import com.example.CityPortal.news.models.News;
+import com.example.CityPortal.news.repository.NewsListItem;
 import com.example.CityPortal.news.repository.NewsRepository;
+import com.example.CityPortal.news.repository.NewsRevision;
 import com.example.CityPortal.news.services.NewsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Connection;
 import org.jsoup.HttpStatusException;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
 import org.jsoup.select.Elements;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
-import javax.net.ssl.*;
 import java.io.IOException;
-import java.security.KeyManagementException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.security.cert.X509Certificate;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Slf4j
 @Service
@@ -38,42 +69,32 @@ public class NewsServiceImpl implements NewsService {
     private static final String BASE_URL  = "https://orenburg.ru";
     private static final String NEWS_URL  = BASE_URL + "/presscenter/news/";
     private static final String RSS_URL   = BASE_URL + "/rss/";
+    private static final String WATERMARK_SOURCE = "orenburg.ru/news";
+    private static final Pattern ARTICLE_ID_PATTERN = Pattern.compile("presscenter/news/(\\d+)");
     private static final int    TIMEOUT_MS = 15_000;
     private static final int    MAX_RETRIES = 3;
+    private static final int    RSS_BATCH_SIZE = 10;
+    private static final int    REVALIDATE_DAYS = 7;
+    private static final Pattern TAG_PATTERN = Pattern.compile("<[^>]*>");
+    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
 
     private static final List<String> USER_AGENTS = List.of(
         "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/122.0.0.0 Safari/537.36",
         "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.2 Safari/605.1.15",
         "Mozilla/5.0 (Windows NT 10.0; Win64; x64; rv:124.0) Gecko/20100101 Firefox/124.0"
     );
-    private static int uaIndex = 0;
+    private static final AtomicInteger uaIndex = new AtomicInteger();
 
     private static String nextUserAgent() {
-        String ua = USER_AGENTS.get(uaIndex % USER_AGENTS.size());
-        uaIndex++;
-        return ua;
+        return USER_AGENTS.get(Math.floorMod(uaIndex.getAndIncrement(), USER_AGENTS.size()));
     }
 
     private final NewsRepository newsRepository;
-    private static final SSLSocketFactory TRUST_ALL_SSL = buildTrustAllSslFactory();
-
-    private static SSLSocketFactory buildTrustAllSslFactory() {
-        try {
-            TrustManager[] trustAll = {
-                new X509TrustManager() {
-                    public X509Certificate[] getAcceptedIssuers() { return new X509Certificate[0]; }
-                    public void checkClientTrusted(X509Certificate[] c, String a) {}
-                    public void checkServerTrusted(X509Certificate[] c, String a) {}
-                }
-            };
-            SSLContext ctx = SSLContext.getInstance("TLS");
-            ctx.init(null, trustAll, new java.security.SecureRandom());
-            return ctx.getSocketFactory();
-        }
-        catch (NoSuchAlgorithmException | KeyManagementException e) {
-            throw new IllegalStateException("Не удалось создать TrustAll SSLContext", e);
-        }
-    }
+    private final HostThrottle hostThrottle;
+    private final HttpValidatorRepository httpValidatorRepository;
+    private final CrawlWatermarkRepository crawlWatermarkRepository;
+    private final ImageProxyService imageProxyService;
+    private static final DeflateTextConverter DEFLATE = new DeflateTextConverter();
 
     @Override
     public int fetchAndSave() {
@@ -97,14 +118,19 @@ public class NewsServiceImpl implements NewsService {
         int pageNum = 1;
         final int MAX_OLD_IN_ROW = 5;
         int oldInRow = 0;
+        Set<String> seen = new HashSet<>();
+        CrawlWatermark watermark = watermarkFor(WATERMARK_SOURCE);
+        long knownUpTo = watermark.getLastItemId() != null ? watermark.getLastItemId() : 0;
+        long maxSeenId = knownUpTo;
+        boolean crawlComplete = true;
 
-        try {
-            outer:
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
             while (true) {
                 String url = pageNum == 1 ? NEWS_URL : NEWS_URL + "?nav-news=page-" + pageNum;
+                HttpValidator validator = validatorFor(url);
                 Document listPage;
                 try {
-                    listPage = connectWithRetry(url);
+                    listPage = connectWithRetry(url, validator);
                 }
                 catch (HttpStatusException hse) {
                     if (hse.getStatusCode() == 503 || hse.getStatusCode() == 429) {
@@ -112,6 +138,7 @@ public class NewsServiceImpl implements NewsService {
                         return -1;
                     }
                     log.error("HTML-парсинг: HTTP {} на {}", hse.getStatusCode(), url);
+                    crawlComplete = false;
                     break;
                 }
                 catch (IOException e) {
@@ -119,11 +146,20 @@ public class NewsServiceImpl implements NewsService {
                     return -1;
                 }
 
+                if (listPage == null) {
+                    log.info("Страница {} не изменилась с прошлого обхода (304) — останавливаем", pageNum);
+                    break;
+                }
+
                 Elements cards = listPage.select("article.list__item");
                 if (cards.isEmpty()) break;
 
                 log.info("Страница {}: найдено карточек {}", pageNum, cards.size());
 
+                List<NewsCard> fresh = new ArrayList<>();
+                boolean stop = false;
+                boolean complete = true;
+                long oldestOnPage = 0;
                 for (Element card : cards) {
                     try {
                         Element timeEl = card.selectFirst("time[datetime]");
@@ -133,46 +169,132 @@ public class NewsServiceImpl implements NewsService {
                                 oldInRow++;
                                 if (oldInRow >= MAX_OLD_IN_ROW) {
                                     log.info("{} карточек подряд старше 3 дней — останавливаем", MAX_OLD_IN_ROW);
-                                    break outer;
+                                    stop = true;
+                                    break;
                                 }
                                 continue;
                             }
                         }
                         oldInRow = 0;
-                        saved += processCard(card);
+                        NewsCard parsed = parseCard(card);
+                        if (parsed == null)
+                            continue;
+                        long articleId = articleId(parsed.href());
+                        if (articleId > 0) {
+                            oldestOnPage = articleId;
+                            maxSeenId = Math.max(maxSeenId, articleId);
+                            if (articleId <= knownUpTo)
+                                continue;
+                        }
+                        if (seen.add(parsed.href()))
+                            fresh.add(parsed);
                     }
                     catch (Exception e) {
+                        complete = false;
                         log.warn("Ошибка обработки карточки: {}", e.getMessage());
                     }
                 }
 
+                Set<String> known = knownSourceUrls(fresh.stream().map(NewsCard::href).toList());
+                fresh.removeIf(c -> known.contains(c.href()));
+
+                int savedOnPage = fetchArticles(fresh, executor);
+                saved += savedOnPage;
+                if (complete && savedOnPage == fresh.size())
+                    rememberValidator(validator);
+                else
+                    crawlComplete = false;
+                if (stop) break;
+
+                if (knownUpTo > 0 && oldestOnPage > 0 && oldestOnPage <= knownUpTo) {
+                    log.info("Страница {} дошла до уже обработанных новостей (id ≤ {}) — останавливаем", pageNum, knownUpTo);
+                    break;
+                }
+
                 boolean hasNext = listPage.selectFirst("a[href*=nav-news=page-" + (pageNum + 1) + "]") != null;
                 if (!hasNext) break;
                 pageNum++;
             }
         } catch (Exception e) {
+            crawlComplete = false;
             log.error("Непредвиденная ошибка HTML-парсинга: {}", e.getMessage(), e);
         }
+
+        if (crawlComplete && maxSeenId > knownUpTo) {
+            watermark.setLastItemId(maxSeenId);
+            watermark.setUpdatedAt(LocalDateTime.now());
+            crawlWatermarkRepository.save(watermark);
+            log.info("Водяной знак новостей сдвинут до id {}", maxSeenId);
+        }
         return saved;
     }
 
+    private CrawlWatermark watermarkFor(String source) {
+        return crawlWatermarkRepository.findBySource(source).orElseGet(() -> {
+            CrawlWatermark watermark = new CrawlWatermark();
+            watermark.setSource(source);
+            return watermark;
+        });
+    }
+
+    private static long articleId(String href) {
+        Matcher m = ARTICLE_ID_PATTERN.matcher(href);
+        return m.find() ? Long.parseLong(m.group(1)) : 0;
+    }
+
     private int fetchRss() {
         int saved = 0;
         try {
-            Document rss = connectWithRetry(RSS_URL);
-            Elements items = rss.select("item");
-            if (items.isEmpty()) {
-                log.warn("RSS: элементов <item> не найдено");
+            HttpValidator validator = validatorFor(RSS_URL);
+            Connection.Response response = executeWithRetry(RSS_URL, validator);
+            if (response == null) {
+                log.info("RSS не изменился с прошлого обхода (304)");
                 return 0;
             }
-            log.info("RSS: найдено {} элементов", items.size());
-            for (Element item : items) {
-                try {
-                    saved += processRssItem(item);
-                } catch (Exception e) {
-                    log.warn("RSS: ошибка обработки item: {}", e.getMessage());
+
+            int seen = 0;
+            boolean complete = true;
+            boolean reachedKnown = false;
+            Map<String, News> batch = new LinkedHashMap<>();
+            try (InputStream in = response.bodyStream();
+                 RssStreamReader reader = new RssStreamReader(in)) {
+                RssStreamReader.RssItem item;
+                while (!reachedKnown && (item = reader.next()) != null) {
+                    seen++;
+                    try {
+                        News news = toNews(item);
+                        if (news != null)
+                            batch.putIfAbsent(news.getSourceUrl(), news);
+                    }
+                    catch (Exception e) {
+                        complete = false;
+                        log.warn("RSS: ошибка обработки item: {}", e.getMessage());
+                    }
+
+                    if (batch.size() >= RSS_BATCH_SIZE) {
+                        RssBatchResult result = saveRssBatch(batch);
+                        saved += result.saved();
+                        complete &= result.complete();
+                        reachedKnown = result.reachedKnown();
+                        batch.clear();
+                    }
                 }
             }
+            if (!batch.isEmpty()) {
+                RssBatchResult result = saveRssBatch(batch);
+                saved += result.saved();
+                complete &= result.complete();
+                reachedKnown = result.reachedKnown();
+            }
+
+            if (seen == 0) {
+                log.warn("RSS: элементов <item> не найдено");
+                return 0;
+            }
+            log.info("RSS: просмотрено {} элементов{}", seen,
+                    reachedKnown ? ", дошли до уже сохранённых — загрузка остановлена" : "");
+            if (complete)
+                rememberValidator(validator);
         }
         catch (HttpStatusException hse) {
             log.warn("RSS недоступен: HTTP {}", hse.getStatusCode());
@@ -185,43 +307,36 @@ public class NewsServiceImpl implements NewsService {
         return saved;
     }
 
-    private int processRssItem(Element item) {
-        Element linkEl = item.selectFirst("link");
-        String link = linkEl != null ? linkEl.text().trim() : "";
-        if (link.isBlank()) link = item.select("link").text().trim();
+    private RssBatchResult saveRssBatch(Map<String, News> batch) {
+        Set<String> known = knownSourceUrls(batch.keySet());
+        List<News> fresh = batch.values().stream()
+                .filter(n -> !known.contains(n.getSourceUrl()))
+                .toList();
+        int saved = saveAll(fresh);
+        return new RssBatchResult(saved, saved == fresh.size(), !known.isEmpty());
+    }
+
+    private News toNews(RssStreamReader.RssItem item) {
+        String link = item.link() != null ? item.link().trim() : "";
         if (link.isBlank())
-            return 0;
+            return null;
         if (!link.matches(".*presscenter/news/\\d+/?.*"))
-            return 0;
-        if (newsRepository.existsBySourceUrl(link))
-            return 0;
+            return null;
 
-        Element titleEl = item.selectFirst("title");
-        String title = titleEl != null ? titleEl.text().trim() : "";
+        String title = item.title() != null ? item.title().trim() : "";
         if (title.isBlank())
-            return 0;
+            return null;
 
-        Element pubDateEl = item.selectFirst("pubDate");
-        String pubDateRaw = pubDateEl != null ? pubDateEl.text().trim() : null;
-        LocalDateTime publishedAt = pubDateRaw != null ? tryParseRssDate(pubDateRaw) : null;
+        LocalDateTime publishedAt = item.pubDate() != null ? tryParseRssDate(item.pubDate()) : null;
 
         String description = null;
-        Element descEl = item.selectFirst("description");
-        if (descEl != null) {
-            String raw = descEl.text().trim();
-            if (!raw.isBlank())
-                description = Jsoup.parse(raw).text();
+        if (item.description() != null && !item.description().isBlank()) {
+            String text = stripTags(item.description());
+            if (!text.isBlank())
+                description = text;
         }
 
-        String imageUrl = null;
-        Element enclosure = item.selectFirst("enclosure[type^=image]");
-        if (enclosure != null)
-            imageUrl = enclosure.attr("url");
-        if (imageUrl == null || imageUrl.isBlank()) {
-            Element media = item.selectFirst("media|content, media\\:content");
-            if (media != null)
-                imageUrl = media.attr("url");
-        }
+        String imageUrl = item.imageUrl();
         if (imageUrl != null && !imageUrl.isBlank() && !imageUrl.startsWith("http")) {
             imageUrl = BASE_URL + imageUrl;
         }
@@ -230,27 +345,251 @@ public class NewsServiceImpl implements NewsService {
         news.setTitle(title);
         news.setDescription(description);
         news.setContent(null);
-        news.setImageUrl(imageUrl != null && !imageUrl.isBlank() ? imageUrl : null);
+        news.setImageUrl(imageUrl != null && !imageUrl.isBlank() ? imageProxyService.proxyUrl(imageUrl) : null);
         news.setSourceUrl(link);
         news.setPublishedAt(publishedAt != null ? publishedAt : LocalDateTime.now());
         news.setParsedAt(LocalDateTime.now());
-        newsRepository.save(news);
-        log.debug("RSS сохранено: {}", title);
-        return 1;
+        return news;
+    }
+
+    private static String stripTags(String html) {
+        String text = TAG_PATTERN.matcher(html).replaceAll(" ");
+        text = Parser.unescapeEntities(text, false);
+        return WHITESPACE_PATTERN.matcher(text).replaceAll(" ").trim();
+    }
+
+    private static String deflatedBase64(String content) {
+        return content != null ? Base64.getEncoder().encodeToString(DEFLATE.convertToDatabaseColumn(content)) : null;
+    }
+
+    private Set<String> knownSourceUrls(Collection<String> urls) {
+        if (urls.isEmpty())
+            return Set.of();
+        return newsRepository.findExistingSourceUrls(urls);
+    }
+
+    private int saveAll(List<News> news) {
+        if (news.isEmpty())
+            return 0;
+        try {
+            return insertAll(news);
+        }
+        catch (DataIntegrityViolationException e) {
+            log.warn("Пакет из {} новостей отклонён ({}), сохраняем по одной", news.size(), e.getMessage());
+            return saveOneByOne(news);
+        }
+        catch (Exception e) {
+            log.warn("Ошибка пакетного сохранения {} новостей: {}", news.size(), e.getMessage());
+            return 0;
+        }
+    }
+
+    private int insertAll(List<News> news) {
+        int n = news.size();
+        String[] titles        = new String[n];
+        String[] descriptions  = new String[n];
+        String[] contents      = new String[n];
+        String[] bodies        = new String[n];
+        String[] contentHashes = new String[n];
+        String[] imageUrls     = new String[n];
+        String[] sourceUrls    = new String[n];
+        LocalDateTime[] publishedAt = new LocalDateTime[n];
+        LocalDateTime[] parsedAt    = new LocalDateTime[n];
+        for (int i = 0; i < n; i++) {
+            News item = news.get(i);
+            titles[i]        = item.getTitle();
+            descriptions[i]  = item.getDescription();
+            contents[i]      = deflatedBase64(item.getContent());
+            bodies[i]        = item.getContent();
+            contentHashes[i] = item.getContentHash();
+            imageUrls[i]     = item.getImageUrl();
+            sourceUrls[i]    = item.getSourceUrl();
+            publishedAt[i]   = item.getPublishedAt();
+            parsedAt[i]      = item.getParsedAt();
+        }
+        return newsRepository.insertAll(titles, descriptions, contents, bodies, contentHashes, imageUrls, sourceUrls,
+                publishedAt, parsedAt);
+    }
+
+    private int saveOneByOne(List<News> news) {
+        int saved = 0;
+        for (News n : news) {
+            try {
+                saved += insertAll(List.of(n));
+            }
+            catch (DataIntegrityViolationException e) {
+                log.warn("Новость {} отклонена базой: {}", n.getSourceUrl(), e.getMessage());
+            }
+            catch (Exception e) {
+                log.warn("Ошибка сохранения новости {}: {}", n.getSourceUrl(), e.getMessage());
+            }
+        }
+        return saved;
+    }
+
+    private int fetchArticles(List<NewsCard> cards, ExecutorService executor) {
+        if (cards.isEmpty())
+            return 0;
+
+        List<Future<News>> futures = new ArrayList<>(cards.size());
+        for (NewsCard card : cards) {
+            futures.add(executor.submit(() -> fetchArticle(card)));
+        }
+
+        List<News> fetched = new ArrayList<>(cards.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                fetched.add(futures.get(i).get());
+            }
+            catch (ExecutionException e) {
+                log.warn("Ошибка загрузки статьи {}: {}", cards.get(i).href(), e.getCause().getMessage());
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return saveAll(fetched);
+    }
+
+    @Override
+    public int revalidateRecent() {
+        List<NewsRevision> recent = newsRepository.findRevisionsSince(LocalDateTime.now().minusDays(REVALIDATE_DAYS));
+        if (recent.isEmpty())
+            return 0;
+
+        Map<String, HttpValidator> validators = new HashMap<>();
+        for (HttpValidator v : httpValidatorRepository.findByUrlIn(recent.stream().map(NewsRevision::getSourceUrl).toList())) {
+            validators.put(v.getUrl(), v);
+        }
+
+        int updated = 0;
+        int notModified = 0;
+        for (NewsRevision revision : recent) {
+            String url = revision.getSourceUrl();
+            HttpValidator validator = validators.get(url);
+            if (validator == null) {
+                validator = new HttpValidator();
+                validator.setUrl(url);
+            }
+
+            try {
+                Document articleDoc = connectWithRetry(url, validator);
+                if (articleDoc == null) {
+                    notModified++;
+                    continue;
+                }
+                if (applyRevision(revision, articleDoc))
+                    updated++;
+                rememberValidator(validator);
+            }
+            catch (HttpStatusException hse) {
+                if (hse.getStatusCode() == 503 || hse.getStatusCode() == 429) {
+                    log.warn("Проверка изменений: сервер вернул {} — прерываем проход", hse.getStatusCode());
+                    break;
+                }
+                log.warn("Проверка изменений: HTTP {} для {}", hse.getStatusCode(), url);
+            }
+            catch (Exception e) {
+                log.warn("Проверка изменений: ошибка для {}: {}", url, e.getMessage());
+            }
+        }
+
+        log.info("Проверено новостей: {}, без изменений (304): {}, обновлено: {}", recent.size(), notModified, updated);
+        return updated;
+    }
+
+    private boolean applyRevision(NewsRevision revision, Document articleDoc) {
+        Element textEl = articleDoc.selectFirst("div.detail__text");
+        if (textEl == null)
+            return false;
+
+        String content = textEl.html();
+        String hash = contentHash(content);
+        if (hash.equals(revision.getContentHash()))
+            return false;
+
+        News news = newsRepository.findById(revision.getId()).orElse(null);
+        if (news == null)
+            return false;
+
+        if (revision.getContentHash() == null && hash.equals(contentHash(news.getContent()))) {
+            newsRepository.updateContentHash(news.getId(), hash);
+            return false;
+        }
+
+        Element firstP = textEl.selectFirst("p");
+        String description = firstP != null ? firstP.text() : news.getDescription();
+        String imageUrl = detailImageUrl(articleDoc);
+        newsRepository.updateContent(news.getId(), description,
+                imageUrl != null ? imageProxyService.proxyUrl(imageUrl) : news.getImageUrl(),
+                deflatedBase64(content), content, hash, LocalDateTime.now());
+        log.debug("Новость обновлена после правки на сайте: {}", news.getSourceUrl());
+        return true;
+    }
+
+    private static String contentHash(String content) {
+        if (content == null)
+            return null;
+        String normalized = WHITESPACE_PATTERN.matcher(content).replaceAll(" ").trim();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
     }
 
-    private Document connectWithRetry(String url) throws IOException {
+    private HttpValidator validatorFor(String url) {
+        return httpValidatorRepository.findByUrl(url).orElseGet(() -> {
+            HttpValidator validator = new HttpValidator();
+            validator.setUrl(url);
+            return validator;
+        });
+    }
+
+    private void rememberValidator(HttpValidator validator) {
+        if (validator.getEtag() == null && validator.getLastModified() == null)
+            return;
+        try {
+            httpValidatorRepository.upsert(validator.getUrl(), validator.getEtag(),
+                    validator.getLastModified(), validator.getCheckedAt());
+        }
+        catch (Exception e) {
+            log.warn("Не удалось сохранить валидаторы для {}: {}", validator.getUrl(), e.getMessage());
+        }
+    }
+
+    private Document connectWithRetry(String url, HttpValidator validator) throws IOException {
+        Connection.Response response = executeWithRetry(url, validator);
+        return response != null ? response.parse() : null;
+    }
+
+    private Connection.Response executeWithRetry(String url, HttpValidator validator) throws IOException {
         IOException lastEx = null;
         for (int attempt = 1; attempt <= MAX_RETRIES; attempt++) {
-            try {
-                return Jsoup.connect(url)
+            try (HostThrottle.Permit ignored = hostThrottle.acquire(url)) {
+                Connection connection = Jsoup.connect(url)
                         .userAgent(nextUserAgent())
                         .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
                         .header("Accept-Language", "ru-RU,ru;q=0.9,en;q=0.8")
                         .header("Referer", BASE_URL + "/")
                         .timeout(TIMEOUT_MS)
-                        .sslSocketFactory(TRUST_ALL_SSL)
-                        .get();
+                        .sslSocketFactory(TrustAllSsl.SOCKET_FACTORY);
+                if (validator.getEtag() != null)
+                    connection.header("If-None-Match", validator.getEtag());
+                if (validator.getLastModified() != null)
+                    connection.header("If-Modified-Since", validator.getLastModified());
+
+                Connection.Response response = connection.execute();
+                if (response.statusCode() == 304)
+                    return null;
+
+                validator.setEtag(response.header("ETag"));
+                validator.setLastModified(response.header("Last-Modified"));
+                validator.setCheckedAt(LocalDateTime.now());
+                return response;
             }
             catch (HttpStatusException hse) {
                 if (hse.getStatusCode() == 503 || hse.getStatusCode() == 429) throw hse;
@@ -261,6 +600,10 @@ public class NewsServiceImpl implements NewsService {
                 lastEx = e;
                 log.warn("Попытка {}/{}: сетевая ошибка для {}: {}", attempt, MAX_RETRIES, url, e.getMessage());
             }
+            catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Прервано", ie);
+            }
             if (attempt < MAX_RETRIES) {
                 try {
                     Thread.sleep(1500L * attempt);
@@ -317,7 +660,45 @@ public class NewsServiceImpl implements NewsService {
     }
 
     @Override
-    public Page<NewsDto> search(String title, String date, Pageable pageable) {
+    public NewsSliceDto getSlice(String after, int size) {
+        int limit = Math.max(size, 1);
+        List<NewsListItem> rows;
+        if (after == null || after.isBlank()) {
+            rows = newsRepository.findFirstSlice(limit + 1);
+        }
+        else {
+            NewsCursor cursor = decodeCursor(after);
+            rows = newsRepository.findSliceAfter(cursor.publishedAt(), cursor.id(), limit + 1);
+        }
+
+        boolean hasNext = rows.size() > limit;
+        List<NewsListItem> page = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            NewsListItem last = page.get(page.size() - 1);
+            nextCursor = encodeCursor(last.getPublishedAt(), last.getId());
+        }
+        return new NewsSliceDto(page.stream().map(this::toDto).toList(), nextCursor, hasNext);
+    }
+
+    private String encodeCursor(LocalDateTime publishedAt, Long id) {
+        String raw = publishedAt + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private NewsCursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(",", 2);
+            return new NewsCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        }
+        catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Некорректный курсор");
+        }
+    }
+
+    @Override
+    public Page<NewsDto> search(String title, String date, boolean highlight, Pageable pageable) {
         String titleParam = (title != null && !title.isBlank()) ? title.trim() : null;
         LocalDateTime from = null;
         LocalDateTime to = null;
@@ -329,7 +710,31 @@ public class NewsServiceImpl implements NewsService {
             }
             catch (Exception ignored) {}
         }
-        return newsRepository.search(titleParam, from, to, pageable).map(this::toDto);
+        if (titleParam == null) {
+            return newsRepository.findByPeriod(from, to, pageable).map(this::toDto);
+        }
+        Page<NewsDto> hits = newsRepository.search(titleParam, from, to, pageable).map(this::toDto);
+        return highlight && hits.hasContent() ? withSnippets(hits, titleParam) : hits;
+    }
+
+    private Page<NewsDto> withSnippets(Page<NewsDto> hits, String query) {
+        List<NewsDto> content = hits.getContent();
+        Map<Long, News> byId = new HashMap<>();
+        for (News n : newsRepository.findAllById(content.stream().map(NewsDto::getId).toList()))
+            byId.put(n.getId(), n);
+
+        String[] docs = new String[content.size()];
+        for (int i = 0; i < docs.length; i++) {
+            NewsDto dto = content.get(i);
+            News news = byId.get(dto.getId());
+            String body = news != null && news.getContent() != null ? Jsoup.parse(news.getContent()).text() : "";
+            String description = dto.getDescription() != null ? dto.getDescription() : "";
+            docs[i] = description.isBlank() && body.isBlank() ? dto.getTitle() : description + "\n" + body;
+        }
+        List<String> snippets = newsRepository.headlines(query, docs);
+        for (int i = 0; i < docs.length && i < snippets.size(); i++)
+            content.get(i).setSnippet(snippets.get(i));
+        return new PageImpl<>(content, hits.getPageable(), hits.getTotalElements());
     }
 
     @Override
@@ -339,23 +744,20 @@ public class NewsServiceImpl implements NewsService {
         return toDetailDto(news);
     }
 
-    private int processCard(Element card) throws Exception {
+    private NewsCard parseCard(Element card) {
         Element linkEl = card.selectFirst("a.list__link, a.list__photo, a[href*=/presscenter/news/]");
         if (linkEl == null)
-            return 0;
+            return null;
 
         String path = linkEl.attr("href");
         String href = path.startsWith("http") ? path : BASE_URL + path;
 
         if (!href.matches(".*presscenter/news/\\d+/?$"))
-            return 0;
-
-        if (newsRepository.existsBySourceUrl(href))
-            return 0;
+            return null;
 
         String title = card.select("h3.list__title, h2.list__title, .list__title").text();
         if (title.isBlank())
-            return 0;
+            return null;
 
         LocalDateTime publishedAt = null;
         Element timeEl = card.selectFirst("time[datetime]");
@@ -398,7 +800,16 @@ public class NewsServiceImpl implements NewsService {
             }
         }
 
-        Document articleDoc = connectWithRetry(href);
+        return new NewsCard(href, title.trim(), publishedAt, cardImageUrl);
+    }
+
+    private News fetchArticle(NewsCard card) throws IOException {
+        HttpValidator validator = new HttpValidator();
+        validator.setUrl(card.href());
+        Document articleDoc = connectWithRetry(card.href(), validator);
+        if (articleDoc == null)
+            throw new IOException("Неожиданный ответ 304 для новой статьи");
+        rememberValidator(validator);
 
         String content = null;
         Element textEl = articleDoc.selectFirst("div.detail__text");
@@ -412,6 +823,31 @@ public class NewsServiceImpl implements NewsService {
                 description = firstP.text();
         }
 
+        String imageUrl = detailImageUrl(articleDoc);
+        if (imageUrl == null) {
+            imageUrl = card.imageUrl();
+        }
+
+        LocalDateTime publishedAt = card.publishedAt();
+        if (publishedAt == null) {
+            Element detailTime = articleDoc.selectFirst("time[datetime]");
+            if (detailTime != null)
+                publishedAt = parseTimeElement(detailTime);
+        }
+
+        News news = new News();
+        news.setTitle(card.title());
+        news.setDescription(description);
+        news.setContent(content);
+        news.setContentHash(contentHash(content));
+        news.setImageUrl(imageProxyService.proxyUrl(imageUrl));
+        news.setSourceUrl(card.href());
+        news.setPublishedAt(publishedAt != null ? publishedAt : LocalDateTime.now());
+        news.setParsedAt(LocalDateTime.now());
+        return news;
+    }
+
+    private String detailImageUrl(Document articleDoc) {
         String imageUrl = null;
         Element detailPicture = articleDoc.selectFirst(".detail__photos picture, .detail__aside picture");
         if (detailPicture != null) {
@@ -450,29 +886,14 @@ public class NewsServiceImpl implements NewsService {
             }
         }
 
-        if (imageUrl == null) {
-            imageUrl = cardImageUrl;
-        }
+        return imageUrl;
+    }
 
+    private record RssBatchResult(int saved, boolean complete, boolean reachedKnown) { }
 
-        if (publishedAt == null) {
-            Element detailTime = articleDoc.selectFirst("time[datetime]");
-            if (detailTime != null)
-                publishedAt = parseTimeElement(detailTime);
-        }
+    private record NewsCursor(LocalDateTime publishedAt, long id) { }
 
-        News news = new News();
-        news.setTitle(title.trim());
-        news.setDescription(description);
-        news.setContent(content);
-        news.setImageUrl(imageUrl);
-        news.setSourceUrl(href);
-        news.setPublishedAt(publishedAt != null ? publishedAt : LocalDateTime.now());
-        news.setParsedAt(LocalDateTime.now());
-
-        newsRepository.save(news);
-        return 1;
-    }
+    private record NewsCard(String href, String title, LocalDateTime publishedAt, String imageUrl) { }
 
     private String lastSrcsetCandidate(String srcset) {
         if (srcset == null || srcset.isBlank())
@@ -519,7 +940,7 @@ public class NewsServiceImpl implements NewsService {
         return null;
     }
 
-    private NewsDto toDto(News n) {
+    private NewsDto toDto(NewsListItem n) {
         NewsDto dto = new NewsDto();
         dto.setId(n.getId());
         dto.setTitle(n.getTitle());
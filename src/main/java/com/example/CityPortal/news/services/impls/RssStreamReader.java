@@ -0,0 +1,149 @@
+package com.example.CityPortal.news.services.impls;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+
+final class RssStreamReader implements AutoCloseable {
+    private static final String MEDIA_NS = "http://search.yahoo.com/mrss/";
+    private static final XMLInputFactory FACTORY = buildFactory();
+
+    private final XMLStreamReader reader;
+
+    record RssItem(String link, String title, String pubDate, String description, String imageUrl) { }
+
+    RssStreamReader(InputStream in) throws IOException {
+        try {
+            this.reader = FACTORY.createXMLStreamReader(in);
+        }
+        catch (XMLStreamException e) {
+            throw new IOException("Не удалось открыть RSS-поток: " + e.getMessage(), e);
+        }
+    }
+
+    private static XMLInputFactory buildFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    RssItem next() throws IOException {
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT)
+                    continue;
+                String name = reader.getLocalName();
+                if (name.equals("item") || name.equals("entry"))
+                    return readItem();
+            }
+            return null;
+        }
+        catch (XMLStreamException e) {
+            throw new IOException("Некорректный XML в RSS: " + e.getMessage(), e);
+        }
+    }
+
+    private RssItem readItem() throws XMLStreamException {
+        String link = null;
+        String title = null;
+        String pubDate = null;
+        String description = null;
+        String imageUrl = null;
+
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+                continue;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT)
+                continue;
+
+            String name = reader.getLocalName();
+            boolean media = MEDIA_NS.equals(reader.getNamespaceURI()) || "media".equals(reader.getPrefix());
+
+            if (media && (name.equals("content") || name.equals("thumbnail"))) {
+                if (imageUrl == null)
+                    imageUrl = attribute("url");
+                depth++;
+            }
+            else if (depth > 1) {
+                depth++;
+            }
+            else if (name.equals("enclosure")) {
+                String type = attribute("type");
+                if (imageUrl == null && type != null && type.startsWith("image"))
+                    imageUrl = attribute("url");
+                depth++;
+            }
+            else if (name.equals("link")) {
+                String href = attribute("href");
+                if (href != null) {
+                    String rel = attribute("rel");
+                    if (link == null && (rel == null || rel.equals("alternate")))
+                        link = href;
+                    depth++;
+                }
+                else if (link == null) {
+                    link = readText();
+                }
+                else {
+                    readText();
+                }
+            }
+            else if (name.equals("title")) {
+                title = readText();
+            }
+            else if (name.equals("pubDate") || name.equals("published")
+                    || (name.equals("updated") && pubDate == null)) {
+                pubDate = readText();
+            }
+            else if (name.equals("description") || name.equals("summary")) {
+                description = readText();
+            }
+            else {
+                depth++;
+            }
+        }
+        return new RssItem(link, title, pubDate, description, imageUrl);
+    }
+
+    private String attribute(String localName) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            if (localName.equals(reader.getAttributeLocalName(i)))
+                return reader.getAttributeValue(i);
+        }
+        return null;
+    }
+
+    private String readText() throws XMLStreamException {
+        StringBuilder sb = new StringBuilder();
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT -> depth++;
+                case XMLStreamConstants.END_ELEMENT -> depth--;
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE ->
+                        sb.append(reader.getText());
+                default -> { }
+            }
+        }
+        return sb.toString().trim();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            reader.close();
+        }
+        catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.CityPortal.routes.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "routes.details")
+public record RouteDetailsProperties(
+        @DefaultValue("img[data-splide-lazy]") String gallerySelector,
+        @DefaultValue("30") long retryBackoffMinutes
+) { }
@@ -1,10 +1,13 @@
 package com.example.CityPortal.routes.config;
 
 import com.example.CityPortal.routes.services.RouteService;
+import com.example.CityPortal.routes.services.impls.RouteFacetIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 
 @Slf4j
@@ -13,6 +16,12 @@ import org.springframework.scheduling.annotation.Scheduled;
 @ConditionalOnProperty(name = "routes.parser.enabled", havingValue = "true", matchIfMissing = true)
 public class RoutesSchedulerConfig {
     private final RouteService routeService;
+    private final RouteFacetIndex facetIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpFacets() {
+        facetIndex.refresh();
+    }
 
     @Scheduled(initialDelayString = "${routes.parser.initial-delay-ms:60000}",
                         fixedDelayString   = "${routes.parser.interval-ms:86400000}")
@@ -21,6 +30,7 @@ public class RoutesSchedulerConfig {
         try {
             int saved = routeService.fetchAndSave();
             log.info("Плановый парсинг маршрутов завершён, новых/обновлённых: {}", saved);
+            facetIndex.refresh();
         }
         catch (Exception e) {
             log.error("Ошибка планового парсинга маршрутов: {}", e.getMessage(), e);
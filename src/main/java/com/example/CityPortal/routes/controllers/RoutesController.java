@@ -2,6 +2,7 @@ package com.example.CityPortal.routes.controllers;
 
 import com.example.CityPortal.routes.dtos.RouteDetailDto;
 import com.example.CityPortal.routes.dtos.RouteDto;
+import com.example.CityPortal.routes.dtos.RouteFacetsDto;
 import com.example.CityPortal.routes.services.RouteService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -17,25 +18,40 @@ import java.util.Map;
 @RequestMapping("/api/routes")
 @RequiredArgsConstructor
 public class RoutesController {
+    private static final String SEED_HEADER = "X-Random-Seed";
+
     private final RouteService routeService;
 
     @GetMapping
-    public Page<RouteDto> getRoutes(@RequestParam(defaultValue = "0") int page,
+    public ResponseEntity<Page<RouteDto>> getRoutes(@RequestParam(defaultValue = "0") int page,
                                                         @RequestParam(defaultValue = "10") int size,
                                                         @RequestParam(required = false) String title,
                                                         @RequestParam(required = false) List<String> routeTypes,
-                                                        @RequestParam(defaultValue = "false") boolean random) {
+                                                        @RequestParam(defaultValue = "false") boolean random,
+                                                        @RequestParam(required = false) Long seed) {
         Pageable pageable = PageRequest.of(page, Math.min(size, 50));
         boolean hasTitle = title != null && !title.isBlank();
         boolean hasTypes = routeTypes != null && !routeTypes.isEmpty();
-
         if (hasTitle || hasTypes) {
-            return routeService.search(title, routeTypes, pageable);
+            return withSeed(routeService.search(title, routeTypes, seed, pageable), seed);
         }
         if (random) {
-            return routeService.getAllRandom(pageable);
+            return withSeed(routeService.getAllRandom(seed, pageable), seed);
         }
-        return routeService.getAll(pageable);
+        return ResponseEntity.ok(routeService.getAll(pageable));
+    }
+
+    private static ResponseEntity<Page<RouteDto>> withSeed(Page<RouteDto> page, Long seed) {
+        if (seed == null)
+            return ResponseEntity.ok(page);
+        return ResponseEntity.ok()
+                .header(SEED_HEADER, Long.toString(seed))
+                .body(page);
+    }
+
+    @GetMapping("/facets")
+    public RouteFacetsDto getFacets(@RequestParam(required = false) String title) {
+        return routeService.getFacets(title);
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,6 @@
+package com.example.CityPortal.routes.dtos;
+
+public record FacetCountDto(
+        String value,
+        long count
+) { }
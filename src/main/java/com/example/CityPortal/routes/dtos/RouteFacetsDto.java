@@ -0,0 +1,9 @@
+package com.example.CityPortal.routes.dtos;
+
+import java.util.List;
+
+public record RouteFacetsDto(
+        long total,
+        List<FacetCountDto> routeTypes,
+        List<FacetCountDto> operators
+) { }
@@ -2,8 +2,11 @@ package com.example.CityPortal.routes.models;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Entity
@@ -31,6 +34,25 @@ public class Route {
     @Column(name = "route_type", length = 64)
     private String routeType;
 
+    @Column(name = "description", columnDefinition = "TEXT")
+    private String description;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "gallery", columnDefinition = "jsonb")
+    private List<String> gallery;
+
+    @Column(name = "details_fetched_at")
+    private LocalDateTime detailsFetchedAt;
+
+    @Column(name = "details_failed_at")
+    private LocalDateTime detailsFailedAt;
+
+    @Column(name = "fingerprint", length = 64)
+    private String fingerprint;
+
     @Column(name = "parsed_at")
     private LocalDateTime parsedAt;
+
+    @Column(name = "last_seen_at")
+    private LocalDateTime lastSeenAt;
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.example.CityPortal.routes.repository;
+
+public interface RouteFacetRow {
+    String getTitle();
+    String getRouteType();
+    String getOperatorName();
+}
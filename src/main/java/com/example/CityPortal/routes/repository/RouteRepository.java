@@ -4,30 +4,56 @@ import com.example.CityPortal.routes.models.Route;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface RouteRepository extends JpaRepository<Route, Long> {
     Optional<Route> findBySourceUrl(String sourceUrl);
+    List<Route> findBySourceUrlIn(Collection<String> sourceUrls);
     Page<Route> findAllByOrderByIdDesc(Pageable pageable);
 
-    @Query(value = "SELECT * FROM route r ORDER BY RANDOM()",
-           countQuery = "SELECT COUNT(*) FROM route r",
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE route SET last_seen_at = :seenAt WHERE source_url IN (:urls) " +
+           "AND (last_seen_at IS NULL OR last_seen_at < :staleBefore)",
            nativeQuery = true)
-    Page<Route> findAllRandom(Pageable pageable);
+    int touchLastSeen(@Param("urls") Collection<String> urls,
+                      @Param("seenAt") LocalDateTime seenAt,
+                      @Param("staleBefore") LocalDateTime staleBefore);
 
-    @Query(value = "SELECT * FROM route r WHERE " +
-           "(CAST(:title AS text) IS NULL OR LOWER(r.title) LIKE LOWER(CONCAT('%', CAST(:title AS text), '%'))) AND " +
-           "(:types IS NULL OR r.route_type IN (:types)) " +
-           "ORDER BY RANDOM()",
-           countQuery = "SELECT COUNT(*) FROM route r WHERE " +
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE route SET description = :description, gallery = CAST(:gallery AS jsonb), details_fetched_at = :fetchedAt, details_failed_at = NULL " +
+           "WHERE id = :id AND fingerprint IS NOT DISTINCT FROM CAST(:fingerprint AS text)",
+           nativeQuery = true)
+    int updateDetails(@Param("id") Long id,
+                      @Param("description") String description,
+                      @Param("gallery") String gallery,
+                      @Param("fetchedAt") LocalDateTime fetchedAt,
+                      @Param("fingerprint") String fingerprint);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE route SET details_failed_at = :failedAt WHERE id = :id", nativeQuery = true)
+    int markDetailsFailed(@Param("id") Long id, @Param("failedAt") LocalDateTime failedAt);
+
+    @Query("SELECT r.title AS title, r.routeType AS routeType, r.operatorName AS operatorName FROM Route r")
+    List<RouteFacetRow> findFacetRows();
+
+    @Query("SELECT r.id FROM Route r ORDER BY r.id")
+    List<Long> findAllIds();
+
+    @Query(value = "SELECT r.id FROM route r WHERE " +
            "(CAST(:title AS text) IS NULL OR LOWER(r.title) LIKE LOWER(CONCAT('%', CAST(:title AS text), '%'))) AND " +
            "(:types IS NULL OR r.route_type IN (:types))",
            nativeQuery = true)
-    Page<Route> search(@Param("title") String title,
-                                    @Param("types") Collection<String> types,
-                                    Pageable pageable);
+    List<Long> searchIds(@Param("title") String title,
+                         @Param("types") Collection<String> types);
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.example.CityPortal.routes.services;
 
 import com.example.CityPortal.routes.dtos.RouteDetailDto;
 import com.example.CityPortal.routes.dtos.RouteDto;
+import com.example.CityPortal.routes.dtos.RouteFacetsDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -9,8 +10,9 @@ import java.util.List;
 
 public interface RouteService {
     int fetchAndSave();
+    RouteFacetsDto getFacets(String title);
     Page<RouteDto> getAll(Pageable pageable);
-    Page<RouteDto> getAllRandom(Pageable pageable);
-    Page<RouteDto> search(String title, List<String> routeTypes, Pageable pageable);
+    Page<RouteDto> getAllRandom(Long seed, Pageable pageable);
+    Page<RouteDto> search(String title, List<String> routeTypes, Long seed, Pageable pageable);
     RouteDetailDto getById(Long id);
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.example.CityPortal.routes.services.impls;
+
+import com.example.CityPortal.routes.dtos.FacetCountDto;
+import com.example.CityPortal.routes.dtos.RouteFacetsDto;
+import com.example.CityPortal.routes.repository.RouteFacetRow;
+import com.example.CityPortal.routes.repository.RouteRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RouteFacetIndex {
+    private static final int TOP_OPERATORS = 10;
+    private static final int MAX_CACHED_TITLES = 128;
+    private static final Comparator<FacetCountDto> BY_COUNT = Comparator.comparingLong(FacetCountDto::count).reversed()
+            .thenComparing(FacetCountDto::value);
+
+    private final RouteRepository routeRepository;
+    private volatile Snapshot snapshot;
+
+    public void refresh() {
+        try {
+            rebuild(routeRepository.findFacetRows());
+        }
+        catch (Exception e) {
+            log.warn("Не удалось пересчитать фасеты маршрутов: {}", e.getMessage());
+        }
+    }
+
+    boolean isReady() {
+        return snapshot != null;
+    }
+
+    void invalidate() {
+        snapshot = null;
+    }
+
+    private void rebuild(List<RouteFacetRow> rows) {
+        List<Entry> entries = rows.stream()
+                .map(r -> new Entry(r.getTitle() != null ? r.getTitle().toLowerCase(Locale.ROOT) : "",
+                        r.getRouteType(), r.getOperatorName()))
+                .toList();
+        snapshot = new Snapshot(entries, aggregate(entries, null));
+    }
+
+    RouteFacetsDto facets(String title) {
+        Snapshot current = snapshot;
+        if (current == null)
+            return new RouteFacetsDto(0, List.of(), List.of());
+        if (title == null || title.isBlank())
+            return current.unfiltered();
+
+        String needle = title.trim().toLowerCase(Locale.ROOT);
+        synchronized (current.byTitle()) {
+            RouteFacetsDto cached = current.byTitle().get(needle);
+            if (cached != null)
+                return cached;
+        }
+        RouteFacetsDto computed = aggregate(current.entries(), needle);
+        synchronized (current.byTitle()) {
+            current.byTitle().put(needle, computed);
+        }
+        return computed;
+    }
+
+    private static RouteFacetsDto aggregate(List<Entry> entries, String needle) {
+        Map<String, Long> types = new HashMap<>();
+        Map<String, Long> operators = new HashMap<>();
+        long total = 0;
+        for (Entry e : entries) {
+            if (needle != null && !e.title().contains(needle))
+                continue;
+            total++;
+            if (e.routeType() != null)
+                types.merge(e.routeType(), 1L, Long::sum);
+            if (e.operatorName() != null && !e.operatorName().isBlank())
+                operators.merge(e.operatorName(), 1L, Long::sum);
+        }
+        return new RouteFacetsDto(total, toCounts(types, Integer.MAX_VALUE), toCounts(operators, TOP_OPERATORS));
+    }
+
+    private static List<FacetCountDto> toCounts(Map<String, Long> counts, int limit) {
+        return counts.entrySet().stream()
+                .map(e -> new FacetCountDto(e.getKey(), e.getValue()))
+                .sorted(BY_COUNT)
+                .limit(limit)
+                .toList();
+    }
+
+    private record Entry(String title, String routeType, String operatorName) { }
+
+    private record Snapshot(List<Entry> entries, RouteFacetsDto unfiltered, Map<String, RouteFacetsDto> byTitle) {
+        Snapshot(List<Entry> entries, RouteFacetsDto unfiltered) {
+            this(entries, unfiltered, new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, RouteFacetsDto> eldest) {
+                    return size() > MAX_CACHED_TITLES;
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.CityPortal.routes.services.impls;
+
+import com.example.CityPortal.routes.repository.RouteRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+@Component
+@RequiredArgsConstructor
+class RoutePermutationCache {
+    private static final int MAX_SEEDS = 256;
+
+    private final RouteRepository routeRepository;
+    private final Map<Long, Permutation> bySeed = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Permutation> eldest) {
+            return size() > MAX_SEEDS;
+        }
+    };
+    private List<Long> ids;
+
+    synchronized Permutation forSeed(long seed) {
+        return bySeed.computeIfAbsent(seed, s -> Permutation.shuffle(ids(), s));
+    }
+
+    List<Long> hashOrder(long seed) {
+        return ids().stream()
+                .sorted(hashComparator(seed))
+                .toList();
+    }
+
+    static Comparator<Long> hashComparator(long seed) {
+        return Comparator.comparingLong(id -> mix(id, seed));
+    }
+
+    private synchronized List<Long> ids() {
+        if (ids == null)
+            ids = List.copyOf(routeRepository.findAllIds());
+        return ids;
+    }
+
+    private static long mix(long id, long seed) {
+        long z = id * 0x9E3779B97F4A7C15L + seed;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    synchronized void invalidate() {
+        ids = null;
+        bySeed.clear();
+    }
+
+    record Permutation(List<Long> order, Map<Long, Integer> rank) {
+        static Permutation shuffle(List<Long> ids, long seed) {
+            List<Long> order = new ArrayList<>(ids);
+            Collections.shuffle(order, new Random(seed));
+            Map<Long, Integer> rank = new HashMap<>(order.size() * 2);
+            for (int i = 0; i < order.size(); i++)
+                rank.put(order.get(i), i);
+            return new Permutation(List.copyOf(order), rank);
+        }
+    }
+}
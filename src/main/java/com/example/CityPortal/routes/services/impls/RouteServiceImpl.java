@@ -1,30 +1,52 @@
 package com.example.CityPortal.routes.services.impls;
 
+import com.example.CityPortal.crawler.ContentFingerprint;
+import com.example.CityPortal.crawler.HostThrottle;
+import com.example.CityPortal.crawler.TrustAllSsl;
+import com.example.CityPortal.images.services.ImageProxyService;
+import com.example.CityPortal.routes.config.RouteDetailsProperties;
 import com.example.CityPortal.routes.dtos.RouteDetailDto;
 import com.example.CityPortal.routes.dtos.RouteDto;
+import com.example.CityPortal.routes.dtos.RouteFacetsDto;
 import com.example.CityPortal.routes.models.Route;
 import com.example.CityPortal.routes.repository.RouteRepository;
 import com.example.CityPortal.routes.services.RouteService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
-import javax.net.ssl.*;
-import java.security.KeyManagementException;
-import java.security.NoSuchAlgorithmException;
-import java.security.cert.X509Certificate;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -32,6 +54,11 @@ import java.util.Map;
 public class RouteServiceImpl implements RouteService {
     private static final String BASE_URL   = "https://travel.orb.ru";
     private static final int    TIMEOUT_MS = 15_000;
+    private static final Duration LAST_SEEN_RESOLUTION = Duration.ofHours(6);
+    private static final Duration DETAILS_TTL = Duration.ofHours(24);
+    private static final int      MAX_GALLERY_SIZE = 12;
+    private static final int      SAVE_BATCH_SIZE = 50;
+    private static final ObjectMapper JSON = new ObjectMapper();
     private static final Map<String, String> SECTION_URLS = new LinkedHashMap<>();
     static {
         SECTION_URLS.put("operator", "/routes/operator/");
@@ -40,52 +67,89 @@ public class RouteServiceImpl implements RouteService {
         SECTION_URLS.put("guide", "/routes/guide/");
     }
     private final RouteRepository routeRepository;
-    private static final SSLSocketFactory TRUST_ALL_SSL = buildTrustAllSslFactory();
+    private final ImageProxyService imageProxyService;
+    private final RouteDetailsProperties routeDetailsProperties;
+    private final HostThrottle hostThrottle;
+    private final ConcurrentMap<Long, CompletableFuture<RouteDetails>> detailsInFlight = new ConcurrentHashMap<>();
+    private final RoutePermutationCache permutations;
+    private final RouteFacetIndex facetIndex;
 
-    private static SSLSocketFactory buildTrustAllSslFactory() {
-        try {
-            TrustManager[] trustAll = {
-                new X509TrustManager() {
-                    public X509Certificate[] getAcceptedIssuers() { return new X509Certificate[0]; }
-                    public void checkClientTrusted(X509Certificate[] c, String a) {}
-                    public void checkServerTrusted(X509Certificate[] c, String a) {}
+    @Override
+    public int fetchAndSave() {
+        long started = System.currentTimeMillis();
+        Map<String, Route> merged = new LinkedHashMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<SectionResult>> sections = new ArrayList<>();
+            for (Map.Entry<String, String> entry : SECTION_URLS.entrySet()) {
+                String routeType   = entry.getKey();
+                String sectionPath = entry.getValue();
+                sections.add(executor.submit(() -> fetchSection(routeType, sectionPath)));
+            }
+            for (Future<SectionResult> future : sections) {
+                try {
+                    SectionResult section = future.get();
+                    int crossListed = 0;
+                    for (Route route : section.routes().values()) {
+                        if (merged.putIfAbsent(route.getSourceUrl(), route) != null)
+                            crossListed++;
+                    }
+                    log.info("Раздел [{}]: страниц {}, маршрутов {} (из них уже в других разделах {}), за {} мс",
+                            section.routeType(), section.pages(), section.routes().size(), crossListed,
+                            section.elapsedMs());
                 }
-            };
-            SSLContext ctx = SSLContext.getInstance("TLS");
-            ctx.init(null, trustAll, new java.security.SecureRandom());
-            return ctx.getSocketFactory();
-        } catch (NoSuchAlgorithmException | KeyManagementException e) {
-            throw new IllegalStateException("Не удалось создать TrustAll SSLContext", e);
+                catch (ExecutionException e) {
+                    log.error("Ошибка парсинга раздела маршрутов: {}", e.getCause().getMessage(), e.getCause());
+                }
+            }
+        }
+        catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            log.warn("Парсинг маршрутов прерван");
+        }
+
+        int inserted = 0;
+        int updated  = 0;
+        List<Route> routes = new ArrayList<>(merged.values());
+        for (int from = 0; from < routes.size(); from += SAVE_BATCH_SIZE) {
+            SaveResult result = savePage(routes.subList(from, Math.min(from + SAVE_BATCH_SIZE, routes.size())));
+            inserted += result.inserted();
+            updated  += result.updated();
         }
+        permutations.invalidate();
+        facetIndex.invalidate();
+        log.info("Итого маршрутов: {}, новых {}, обновлено {} (за {} мс)",
+                routes.size(), inserted, updated, System.currentTimeMillis() - started);
+        return inserted;
     }
 
     @Override
-    public int fetchAndSave() {
-        int total = 0;
-        for (Map.Entry<String, String> entry : SECTION_URLS.entrySet()) {
-            String routeType   = entry.getKey();
-            String sectionPath = entry.getValue();
-            total += fetchSection(routeType, sectionPath);
-        }
-        log.info("Итого маршрутов сохранено/обновлено: {}", total);
-        return total;
+    public RouteFacetsDto getFacets(String title) {
+        if (!facetIndex.isReady())
+            facetIndex.refresh();
+        return facetIndex.facets(title);
     }
 
-    private int fetchSection(String routeType, String sectionPath) {
-        int saved   = 0;
+    private SectionResult fetchSection(String routeType, String sectionPath) {
+        long started = System.currentTimeMillis();
+        Map<String, Route> routes = new LinkedHashMap<>();
         int pageNum = 0;
+        int pages   = 0;
 
         try {
             while (true) {
                 String url = BASE_URL + sectionPath + (pageNum > 0 ? "?PAGEN_1=" + pageNum : "");
                 log.info("Парсим маршруты [{}], стр. {}: {}", routeType, pageNum, url);
 
-                Document doc = Jsoup.connect(url)
-                        .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 "
-                                + "(KHTML, like Gecko) Chrome/122.0.0.0 Safari/537.36")
-                        .timeout(TIMEOUT_MS)
-                        .sslSocketFactory(TRUST_ALL_SSL)
-                        .get();
+                Document doc;
+                try (HostThrottle.Permit ignored = hostThrottle.acquire(url)) {
+                    doc = Jsoup.connect(url)
+                            .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 "
+                                    + "(KHTML, like Gecko) Chrome/122.0.0.0 Safari/537.36")
+                            .timeout(TIMEOUT_MS)
+                            .sslSocketFactory(TrustAllSsl.SOCKET_FACTORY)
+                            .get();
+                }
+                pages++;
 
                 Elements cards = doc.select("div.places__card");
 
@@ -97,7 +161,9 @@ public class RouteServiceImpl implements RouteService {
                 log.info("[{}] стр. {}: найдено {} карточек", routeType, pageNum, cards.size());
                 for (Element card : cards) {
                     try {
-                        saved += processCard(card, routeType);
+                        Route route = parseCard(card, routeType);
+                        if (route != null)
+                            routes.putIfAbsent(route.getSourceUrl(), route);
                     }
                     catch (Exception e) {
                         log.warn("Ошибка обработки карточки [{}]: {}", routeType, e.getMessage());
@@ -116,34 +182,97 @@ public class RouteServiceImpl implements RouteService {
                 }
 
                 pageNum++;
-                try {
-                    Thread.sleep(500);
-                }
-                catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
             }
         }
+        catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
         catch (Exception e) {
             log.error("Ошибка парсинга раздела [{}]: {}", routeType, e.getMessage(), e);
         }
 
-        return saved;
+        return new SectionResult(routeType, pages, routes, System.currentTimeMillis() - started);
     }
 
-    private int processCard(Element card, String routeType) {
+    private SaveResult savePage(List<Route> parsed) {
+        if (parsed.isEmpty())
+            return new SaveResult(0, 0);
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return savePageOnce(parsed);
+            }
+            catch (DataIntegrityViolationException e) {
+                if (attempt >= 2) {
+                    log.warn("Ошибка сохранения пакета маршрутов: {}", e.getMessage());
+                    return new SaveResult(0, 0);
+                }
+                log.debug("Маршрут одновременно сохранён другим процессом, повторяем пакет");
+            }
+            catch (Exception e) {
+                log.warn("Ошибка сохранения пакета маршрутов: {}", e.getMessage());
+                return new SaveResult(0, 0);
+            }
+        }
+    }
+
+    private SaveResult savePageOnce(List<Route> parsed) {
+        Map<String, Route> existing = routeRepository.findBySourceUrlIn(parsed.stream().map(Route::getSourceUrl).toList())
+                .stream()
+                .collect(Collectors.toMap(Route::getSourceUrl, Function.identity(), (a, b) -> a));
+        LocalDateTime now = LocalDateTime.now();
+        List<Route> changed = new ArrayList<>();
+        List<String> unchanged = new ArrayList<>();
+        int created = 0;
+
+        for (Route fresh : parsed) {
+            Route route = existing.get(fresh.getSourceUrl());
+            if (route != null && fresh.getFingerprint().equals(route.getFingerprint())) {
+                unchanged.add(fresh.getSourceUrl());
+                continue;
+            }
+            if (route == null) {
+                route = new Route();
+                created++;
+            }
+            route.setTitle(fresh.getTitle());
+            route.setOperatorName(fresh.getOperatorName());
+            route.setDuration(fresh.getDuration());
+            route.setImageUrl(fresh.getImageUrl());
+            route.setSourceUrl(fresh.getSourceUrl());
+            route.setRouteType(fresh.getRouteType());
+            route.setFingerprint(fresh.getFingerprint());
+            route.setDetailsFetchedAt(null);
+            route.setDetailsFailedAt(null);
+            route.setParsedAt(now);
+            route.setLastSeenAt(now);
+            changed.add(route);
+        }
+
+        routeRepository.saveAll(changed);
+        int touched = unchanged.isEmpty() ? 0
+                : routeRepository.touchLastSeen(unchanged, now, now.minus(LAST_SEEN_RESOLUTION));
+        log.debug("Пакет маршрутов: новых {}, обновлено {}, без изменений {} (last_seen_at обновлён у {})",
+                created, changed.size() - created, unchanged.size(), touched);
+        return new SaveResult(created, changed.size() - created);
+    }
+
+    private record SectionResult(String routeType, int pages, Map<String, Route> routes, long elapsedMs) { }
+
+    private record SaveResult(int inserted, int updated) { }
+
+    private Route parseCard(Element card, String routeType) {
         Element nameEl = card.selectFirst("a.places__card__name");
         if (nameEl == null)
-            return 0;
+            return null;
 
         String title = nameEl.text().trim();
         if (title.isBlank())
-            return 0;
+            return null;
 
         String path = nameEl.attr("href");
         if (path.isBlank())
-            return 0;
+            return null;
         String sourceUrl = path.startsWith("http") ? path : BASE_URL + path;
 
         Element imgEl = card.selectFirst("img[data-splide-lazy]");
@@ -175,20 +304,15 @@ public class RouteServiceImpl implements RouteService {
                 duration = null;
         }
 
-        Route route = routeRepository.findBySourceUrl(sourceUrl).orElseGet(Route::new);
-        boolean isNew = route.getId() == null;
-
+        Route route = new Route();
         route.setTitle(title);
         route.setOperatorName(operatorName);
         route.setDuration(duration);
-        route.setImageUrl(imageUrl);
+        route.setImageUrl(imageProxyService.proxyUrl(imageUrl));
         route.setSourceUrl(sourceUrl);
         route.setRouteType(routeType);
-        route.setParsedAt(LocalDateTime.now());
-
-        routeRepository.save(route);
-        log.debug("{}: [{}] {}", isNew ? "Сохранён" : "Обновлён", routeType, title);
-        return isNew ? 1 : 0;
+        route.setFingerprint(ContentFingerprint.of(title, operatorName, duration, route.getImageUrl(), routeType));
+        return route;
     }
 
     @Override
@@ -197,24 +321,174 @@ public class RouteServiceImpl implements RouteService {
     }
 
     @Override
-    public Page<RouteDto> getAllRandom(Pageable pageable) {
-        return routeRepository.findAllRandom(pageable).map(this::toDto);
+    public Page<RouteDto> getAllRandom(Long seed, Pageable pageable) {
+        List<Long> order = seed != null
+                ? permutations.forSeed(seed).order()
+                : permutations.hashOrder(ThreadLocalRandom.current().nextLong());
+        return slice(order, pageable);
     }
 
     @Override
-    public Page<RouteDto> search(String title, List<String> routeTypes, Pageable pageable) {
+    public Page<RouteDto> search(String title, List<String> routeTypes, Long seed, Pageable pageable) {
         String titleParam = (title != null && !title.isBlank()) ? title.trim() : null;
         List<String> types = (routeTypes != null && !routeTypes.isEmpty()) ? routeTypes : null;
-        return routeRepository.search(titleParam, types, pageable).map(this::toDto);
+        Comparator<Long> order;
+        if (seed != null) {
+            Map<Long, Integer> rank = permutations.forSeed(seed).rank();
+            order = Comparator.comparing(id -> rank.getOrDefault(id, Integer.MAX_VALUE));
+        }
+        else {
+            order = RoutePermutationCache.hashComparator(ThreadLocalRandom.current().nextLong());
+        }
+        List<Long> matched = routeRepository.searchIds(titleParam, types).stream()
+                .sorted(order)
+                .toList();
+        return slice(matched, pageable);
+    }
+
+    private Page<RouteDto> slice(List<Long> orderedIds, Pageable pageable) {
+        int start = (int) Math.min(pageable.getOffset(), orderedIds.size());
+        int end = Math.min(start + pageable.getPageSize(), orderedIds.size());
+        List<Long> pageIds = orderedIds.subList(start, end);
+
+        Map<Long, Route> byId = routeRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Route::getId, Function.identity()));
+        List<RouteDto> content = pageIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(this::toDto)
+                .toList();
+        return new PageImpl<>(content, pageable, orderedIds.size());
     }
 
     @Override
     public RouteDetailDto getById(Long id) {
         Route route = routeRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Маршрут не найден"));
-        return toDetailDto(route);
+        RouteDetailDto dto = toDetailDto(route);
+        if (detailsStale(route)) {
+            RouteDetails details = enrichOnce(route);
+            if (details != null) {
+                dto.setDescription(details.description());
+                dto.setGallery(details.gallery());
+                dto.setDetailsFetchedAt(details.fetchedAt());
+            }
+        }
+        return dto;
+    }
+
+    private boolean detailsStale(Route route) {
+        LocalDateTime now = LocalDateTime.now();
+        if (route.getDetailsFailedAt() != null
+                && route.getDetailsFailedAt().isAfter(now.minusMinutes(routeDetailsProperties.retryBackoffMinutes())))
+            return false;
+        return route.getDetailsFetchedAt() == null
+                || route.getDetailsFetchedAt().isBefore(now.minus(DETAILS_TTL));
+    }
+
+    private RouteDetails enrichOnce(Route route) {
+        CompletableFuture<RouteDetails> mine = new CompletableFuture<>();
+        CompletableFuture<RouteDetails> running = detailsInFlight.putIfAbsent(route.getId(), mine);
+        if (running != null)
+            return running.join();
+
+        RouteDetails result = null;
+        try {
+            result = enrich(route);
+        }
+        finally {
+            mine.complete(result);
+            detailsInFlight.remove(route.getId(), mine);
+        }
+        return result;
+    }
+
+    private RouteDetails enrich(Route route) {
+        String url = route.getSourceUrl();
+        if (url == null || url.isBlank())
+            return null;
+
+        Document doc;
+        try (HostThrottle.Permit ignored = hostThrottle.acquire(url)) {
+            doc = Jsoup.connect(url)
+                    .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 "
+                            + "(KHTML, like Gecko) Chrome/122.0.0.0 Safari/537.36")
+                    .timeout(TIMEOUT_MS)
+                    .sslSocketFactory(TrustAllSsl.SOCKET_FACTORY)
+                    .get();
+        }
+        catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        catch (Exception e) {
+            log.warn("Не удалось загрузить страницу маршрута {}: {}", url, e.getMessage());
+            markDetailsFailed(route.getId());
+            return null;
+        }
+
+        RouteDetails details = new RouteDetails(parseDescription(doc), parseGallery(doc), LocalDateTime.now());
+        try {
+            int updated = routeRepository.updateDetails(route.getId(), details.description(),
+                    toJson(details.gallery()), details.fetchedAt(), route.getFingerprint());
+            if (updated == 0)
+                log.debug("Маршрут {} изменился во время загрузки подробностей, результат не сохранён", route.getId());
+            else
+                log.debug("Маршрут {} дополнен: фото {}", route.getId(), details.gallery().size());
+        }
+        catch (Exception e) {
+            log.warn("Не удалось сохранить подробности маршрута {}: {}", route.getId(), e.getMessage());
+        }
+        return details;
     }
 
+    private void markDetailsFailed(Long id) {
+        try {
+            routeRepository.markDetailsFailed(id, LocalDateTime.now());
+        }
+        catch (Exception e) {
+            log.warn("Не удалось отметить неудачную загрузку маршрута {}: {}", id, e.getMessage());
+        }
+    }
+
+    private static String toJson(List<String> values) {
+        try {
+            return JSON.writeValueAsString(values);
+        }
+        catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать список", e);
+        }
+    }
+
+    private String parseDescription(Document doc) {
+        Element meta = doc.selectFirst("meta[property=og:description], meta[name=description]");
+        if (meta != null && !meta.attr("content").isBlank())
+            return meta.attr("content").trim();
+        return null;
+    }
+
+    private List<String> parseGallery(Document doc) {
+        Set<String> images = new LinkedHashSet<>();
+        for (Element img : doc.select(routeDetailsProperties.gallerySelector())) {
+            String src = img.hasAttr("data-splide-lazy") ? img.attr("data-splide-lazy") : img.attr("src");
+            if (src.isBlank() || src.contains("pixel"))
+                continue;
+            images.add(src.startsWith("http") ? src : BASE_URL + src);
+            if (images.size() >= MAX_GALLERY_SIZE)
+                break;
+        }
+        if (images.isEmpty()) {
+            Element og = doc.selectFirst("meta[property=og:image]");
+            if (og != null && !og.attr("content").isBlank()) {
+                String src = og.attr("content");
+                images.add(src.startsWith("http") ? src : BASE_URL + src);
+            }
+        }
+        return images.stream().map(imageProxyService::proxyUrl).toList();
+    }
+
+    private record RouteDetails(String description, List<String> gallery, LocalDateTime fetchedAt) { }
+
     private RouteDto toDto(Route r) {
         RouteDto dto = new RouteDto();
         dto.setId(r.getId());
@@ -236,6 +510,9 @@ public class RouteServiceImpl implements RouteService {
         dto.setImageUrl(r.getImageUrl());
         dto.setSourceUrl(r.getSourceUrl());
         dto.setRouteType(r.getRouteType());
+        dto.setDescription(r.getDescription());
+        dto.setGallery(r.getGallery() != null ? r.getGallery() : List.of());
+        dto.setDetailsFetchedAt(r.getDetailsFetchedAt());
         dto.setParsedAt(r.getParsedAt());
         return dto;
     }
@@ -0,0 +1,26 @@
+package com.example.CityPortal.traffic.config;
+
+import com.example.CityPortal.traffic.services.TrafficService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class TrafficSchedulerConfig {
+
+    private final TrafficService trafficService;
+
+    @Scheduled(initialDelayString = "${tomtom.traffic.poll-initial-delay-ms:0}",
+                        fixedDelayString   = "${tomtom.traffic.poll-interval-ms:300000}")
+    public void scheduledPoll() {
+        try {
+            trafficService.poll();
+        }
+        catch (Exception e) {
+            log.error("Ошибка фонового опроса TomTom Traffic: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -6,4 +6,5 @@ import com.example.CityPortal.traffic.dtos.TrafficWidgetDto;
 public interface TrafficService {
     TrafficWidgetDto getWidget();
     TrafficDetailsDto getDetails();
+    void poll();
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.example.CityPortal.traffic.services.impls;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+class TrafficSampleRing {
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+
+    private final AtomicReferenceArray<Sample> slots;
+    private final AtomicLong written = new AtomicLong();
+
+    TrafficSampleRing(int capacity) {
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    void add(long timestamp, double value) {
+        long seq = written.get();
+        slots.set((int) (seq % slots.length()), new Sample(timestamp, value));
+        written.set(seq + 1);
+    }
+
+    Sample latest() {
+        long seq = written.get();
+        return seq == 0 ? null : slots.get((int) ((seq - 1) % slots.length()));
+    }
+
+    Double slopePerHour(long fromTimestamp, int minSamples) {
+        long seq = written.get();
+        long oldest = Math.max(0, seq - slots.length());
+        long upperBound = Long.MAX_VALUE;
+        int n = 0;
+        double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0;
+        long minTs = Long.MAX_VALUE, maxTs = Long.MIN_VALUE;
+
+        for (long i = seq - 1; i >= oldest; i--) {
+            Sample s = slots.get((int) (i % slots.length()));
+            if (s == null || s.timestamp() < fromTimestamp || s.timestamp() > upperBound)
+                break;
+            upperBound = s.timestamp();
+            if (Double.isNaN(s.value()))
+                continue;
+            double x = (double) (s.timestamp() - fromTimestamp) / MILLIS_PER_HOUR;
+            n++;
+            sumX += x;
+            sumY += s.value();
+            sumXX += x * x;
+            sumXY += x * s.value();
+            minTs = Math.min(minTs, s.timestamp());
+            maxTs = Math.max(maxTs, s.timestamp());
+        }
+
+        if (n < minSamples || maxTs <= minTs)
+            return null;
+        double denominator = n * sumXX - sumX * sumX;
+        if (denominator == 0)
+            return null;
+        return (n * sumXY - sumX * sumY) / denominator;
+    }
+
+    record Sample(long timestamp, double value) {
+        boolean hasValue() {
+            return !Double.isNaN(value);
+        }
+    }
+}
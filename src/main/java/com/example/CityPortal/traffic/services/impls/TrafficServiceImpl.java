@@ -6,10 +6,12 @@ import com.example.CityPortal.traffic.dtos.SegmentDto;
 import com.example.CityPortal.traffic.dtos.TrafficDetailsDto;
 import com.example.CityPortal.traffic.dtos.TrafficWidgetDto;
 import com.example.CityPortal.traffic.services.TrafficService;
-import lombok.AllArgsConstructor;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Primary;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 import java.net.URI;
@@ -20,11 +22,21 @@ import java.util.Locale;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Slf4j
 @Service
 @Primary
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class TrafficServiceImpl implements TrafficService {
 
     private static final String FLOW_URL =
@@ -33,48 +45,162 @@ public class TrafficServiceImpl implements TrafficService {
     private static final String INCIDENTS_URL =
             "https://api.tomtom.com/traffic/services/5/incidentDetails";
 
+    private static final long DEADLINE_MS = 3000;
+    private static final int RING_CAPACITY = 64;
+    private static final long TREND_WINDOW_MS = 3_600_000L;
+    private static final int TREND_MIN_SAMPLES = 3;
+    private static final double TREND_THRESHOLD = 0.5;
+    private static final Locale RU = Locale.forLanguageTag("ru-RU");
+    private static final String CENTER = "центр";
+    private static final String INCIDENTS = "происшествия";
+
     private final TrafficApiProperties trafficApiProperties;
     private final MapApiProperties mapApiProperties;
-    private final RestClient restClient;
+    private final RestClient restClient = RestClient.builder().requestFactory(deadlineRequestFactory()).build();
+    private final ExecutorService probeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, TrafficSampleRing> rings = new ConcurrentHashMap<>();
+    private final ReentrantLock pollLock = new ReentrantLock();
+
+    private record Timed<T>(T value, long elapsedMs) { }
+
+    private static SimpleClientHttpRequestFactory deadlineRequestFactory() {
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout((int) DEADLINE_MS);
+        factory.setReadTimeout((int) DEADLINE_MS);
+        return factory;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        probeExecutor.shutdownNow();
+    }
 
     @Override
     public TrafficWidgetDto getWidget() {
-        try {
-            int level = fetchCombinedLevel();
-            return new TrafficWidgetDto(
-                    "Оренбург", level,
-                    levelDescription(level), levelColor(level), levelIcon(level),
-                    Instant.now()
-            );
-        } catch (Exception e) {
-            log.warn("TomTom Traffic API error (widget): {}", e.getMessage());
+        TrafficSampleRing.Sample center = latestCenter();
+        if (center == null || !center.hasValue())
             return new TrafficWidgetDto("Оренбург", 0, "Нет данных", "#6b7280", "❓", Instant.now());
-        }
+        int level = (int) center.value();
+        return new TrafficWidgetDto(
+                "Оренбург", level,
+                levelDescription(level), levelColor(level), levelIcon(level),
+                Instant.ofEpochMilli(center.timestamp())
+        );
     }
 
     @Override
     public TrafficDetailsDto getDetails() {
-        try {
-            int level = fetchCombinedLevel();
-            List<SegmentDto> segments = fetchSegments();
-            return new TrafficDetailsDto(
-                    "Оренбург", level,
-                    levelDescription(level), levelColor(level), levelIcon(level),
-                    buildTrend(level), buildAdvice(level),
-                    segments, Instant.now(),
-                    trafficApiProperties.lat(), trafficApiProperties.lon(),
-                    mapApiProperties.jsApiKey()
-            );
-        } catch (Exception e) {
-            log.warn("TomTom Traffic API error (details): {}", e.getMessage());
+        TrafficSampleRing.Sample center = latestCenter();
+        if (center == null || !center.hasValue())
             return buildFallbackDetails();
+
+        List<SegmentDto> segments = new ArrayList<>(STREET_NAMES.length);
+        for (String name : STREET_NAMES) {
+            TrafficSampleRing.Sample sample = ring(name).latest();
+            if (sample == null || !sample.hasValue()) {
+                segments.add(new SegmentDto(name, 0, "Нет данных", "#6b7280"));
+                continue;
+            }
+            int lvl = (int) sample.value();
+            segments.add(new SegmentDto(name, lvl, levelDescription(lvl), levelColor(lvl)));
+        }
+
+        int level = (int) center.value();
+        Double slope = ring(CENTER).slopePerHour(center.timestamp() - TREND_WINDOW_MS, TREND_MIN_SAMPLES);
+        return new TrafficDetailsDto(
+                "Оренбург", level,
+                levelDescription(level), levelColor(level), levelIcon(level),
+                buildTrend(level, slope), buildAdvice(level),
+                segments, Instant.ofEpochMilli(center.timestamp()),
+                trafficApiProperties.lat(), trafficApiProperties.lon(),
+                mapApiProperties.jsApiKey()
+        );
+    }
+
+    @Override
+    public void poll() {
+        pollLock.lock();
+        try {
+            long sampledAt = System.currentTimeMillis();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DEADLINE_MS);
+            Future<Timed<Double>> flow = submit(this::fetchCenterFlowRatio);
+            Future<Timed<Integer>> incidents = submit(this::fetchIncidentSeverity);
+            List<Future<Timed<Double>>> probes = new ArrayList<>(PROBE_POINTS.length);
+            for (double[] probe : PROBE_POINTS)
+                probes.add(submit(() -> fetchFlowRatio(probe[0], probe[1])));
+
+            StringJoiner timings = new StringJoiner(", ");
+            Double ratio = await(flow, CENTER, deadline, timings);
+            Integer severity = await(incidents, INCIDENTS, deadline, timings);
+            ring(INCIDENTS).add(sampledAt, severity != null ? severity : Double.NaN);
+            ring(CENTER).add(sampledAt, ratio != null ? combineLevel(ratio, severity != null ? severity : 0) : Double.NaN);
+            for (int i = 0; i < PROBE_POINTS.length; i++) {
+                Double probeRatio = await(probes.get(i), STREET_NAMES[i], deadline, timings);
+                ring(STREET_NAMES[i]).add(sampledAt, probeRatio != null ? ratioToLevel(probeRatio) : Double.NaN);
+            }
+            logTimings("poll", timings);
+        }
+        finally {
+            pollLock.unlock();
+        }
+    }
+
+    private TrafficSampleRing.Sample latestCenter() {
+        TrafficSampleRing.Sample center = ring(CENTER).latest();
+        if (center != null)
+            return center;
+        pollLock.lock();
+        try {
+            if (ring(CENTER).latest() == null)
+                poll();
+            return ring(CENTER).latest();
         }
+        finally {
+            pollLock.unlock();
+        }
+    }
+
+    private TrafficSampleRing ring(String name) {
+        return rings.computeIfAbsent(name, n -> new TrafficSampleRing(RING_CAPACITY));
+    }
+
+    private <T> Future<Timed<T>> submit(Callable<T> call) {
+        return probeExecutor.submit(() -> {
+            long started = System.nanoTime();
+            T value = call.call();
+            return new Timed<>(value, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        });
+    }
+
+    private <T> T await(Future<Timed<T>> future, String name, long deadline, StringJoiner timings) {
+        try {
+            Timed<T> timed = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            timings.add(name + " " + timed.elapsedMs() + " мс");
+            return timed.value();
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timings.add(name + " не успел");
+        } catch (ExecutionException e) {
+            timings.add(name + " ошибка");
+            log.warn("TomTom request for {} failed: {}", name, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+        }
+        return null;
+    }
+
+    private void logTimings(String kind, StringJoiner timings) {
+        log.debug("TomTom {} timings: {}", kind, timings);
+    }
+
+    private double fetchCenterFlowRatio() {
+        return fetchFlowRatio(trafficApiProperties.lat(), trafficApiProperties.lon());
     }
 
     @SuppressWarnings("unchecked")
-    private double fetchFlowRatio() {
-        String point = String.format(Locale.US, "%.4f,%.4f",
-                trafficApiProperties.lat(), trafficApiProperties.lon());
+    private double fetchFlowRatio(double lat, double lon) {
+        String point = String.format(Locale.US, "%.4f,%.4f", lat, lon);
         String uri = FLOW_URL
                 + "?key=" + trafficApiProperties.apiKey()
                 + "&point=" + point
@@ -148,11 +274,8 @@ public class TrafficServiceImpl implements TrafficService {
         return maxMag;
     }
 
-    private int fetchCombinedLevel() {
-        double ratio = fetchFlowRatio();
-        int sev   = fetchIncidentSeverity();
-        double congestion = 1.0 - ratio;
-        int baseLevel = (int) Math.round(congestion * 9) + 1;
+    private int combineLevel(double ratio, int sev) {
+        int baseLevel = ratioToLevel(ratio);
 
         int boost = switch (sev) {
             case 1 -> 1;
@@ -165,6 +288,11 @@ public class TrafficServiceImpl implements TrafficService {
         return Math.min(10, Math.max(1, baseLevel + boost));
     }
 
+    private static int ratioToLevel(double ratio) {
+        double congestion = 1.0 - ratio;
+        return Math.max(1, Math.min(10, (int) Math.round(congestion * 9) + 1));
+    }
+
     private static final double[][] PROBE_POINTS = {
             {51.792499, 55.126088},  // пр. Победы
             {51.809686, 55.107124},  // ул. Терешковой
@@ -183,48 +311,6 @@ public class TrafficServiceImpl implements TrafficService {
             "ул. Монтажников",
     };
 
-    @SuppressWarnings("unchecked")
-    private List<SegmentDto> fetchSegments() {
-        List<SegmentDto> result = new ArrayList<>();
-        for (int i = 0; i < PROBE_POINTS.length; i++) {
-            double lat = PROBE_POINTS[i][0];
-            double lon = PROBE_POINTS[i][1];
-            String name = STREET_NAMES[i];
-            try {
-                String point = String.format(Locale.US, "%.4f,%.4f", lat, lon);
-                String uri = FLOW_URL
-                        + "?key=" + trafficApiProperties.apiKey()
-                        + "&point=" + point
-                        + "&unit=KMPH";
-
-                Map<String, Object> body = restClient.get()
-                        .uri(uri)
-                        .retrieve()
-                        .body(new ParameterizedTypeReference<>() {});
-
-                int lvl = 1;
-                if (body != null) {
-                    Object fsObj = body.get("flowSegmentData");
-                    if (fsObj instanceof Map<?, ?> fs) {
-                        Map<String, Object> fsMap = (Map<String, Object>) fs;
-                        double current  = toDouble(fsMap.get("currentSpeed"),  0);
-                        double freeFlow = toDouble(fsMap.get("freeFlowSpeed"), 0);
-                        if (freeFlow > 0) {
-                            double ratio = Math.min(current / freeFlow, 1.0);
-                            double congestion = 1.0 - ratio;
-                            lvl = Math.max(1, Math.min(10, (int) Math.round(congestion * 9) + 1));
-                        }
-                    }
-                }
-                result.add(new SegmentDto(name, lvl, levelDescription(lvl), levelColor(lvl)));
-            } catch (Exception e) {
-                log.warn("TomTom Flow for {} failed: {}", name, e.getMessage());
-                result.add(new SegmentDto(name, 0, "Нет данных", "#6b7280"));
-            }
-        }
-        return result;
-    }
-
     private TrafficDetailsDto buildFallbackDetails() {
         return new TrafficDetailsDto(
                 "Оренбург", 0, "Нет данных", "#6b7280", "❓",
@@ -274,7 +360,17 @@ public class TrafficServiceImpl implements TrafficService {
         return "🔴";
     }
 
-    private String buildTrend(int level) {
+    private String buildTrend(int level, Double slopePerHour) {
+        if (slopePerHour == null)
+            return buildLevelTrend(level);
+        if (slopePerHour >= TREND_THRESHOLD)
+            return String.format(RU, "Загруженность растёт: +%.1f балла за последний час", slopePerHour);
+        if (slopePerHour <= -TREND_THRESHOLD)
+            return String.format(RU, "Загруженность снижается: %.1f балла за последний час", slopePerHour);
+        return "Ситуация стабильна в течение последнего часа";
+    }
+
+    private String buildLevelTrend(int level) {
         if (level <= 2)  return "Дорожная ситуация благоприятная";
         if (level <= 4)  return "Незначительные задержки на отдельных участках";
         if (level <= 6)  return "Умеренные задержки движения";
@@ -1,9 +1,12 @@
 package com.example.CityPortal.weather.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 
 @ConfigurationProperties(prefix = "weather.openmeteo")
 public record WeatherApiProperties(
         String baseUrl,
-        int days
+        int days,
+        @DefaultValue("60") long maxAgeMinutes,
+        @DefaultValue("30") long retryBackoffSeconds
 ) { }
\ No newline at end of file
@@ -2,10 +2,23 @@ package com.example.CityPortal.weather.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.List;
+
 @ConfigurationProperties(prefix = "weather.city")
 public record WeatherCityProperties(
         String name,
         double latitude,
         double longitude,
-        String timezone
-) { }
+        String timezone,
+        List<District> districts
+) {
+    public WeatherCityProperties {
+        districts = districts != null ? List.copyOf(districts) : List.of();
+    }
+
+    public record District(
+            String name,
+            double latitude,
+            double longitude
+    ) { }
+}
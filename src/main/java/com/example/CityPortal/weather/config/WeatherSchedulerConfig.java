@@ -0,0 +1,26 @@
+package com.example.CityPortal.weather.config;
+
+import com.example.CityPortal.weather.services.WeatherService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class WeatherSchedulerConfig {
+
+    private final WeatherService weatherService;
+
+    @Scheduled(initialDelayString = "${weather.refresh.initial-delay-ms:0}",
+                        fixedDelayString   = "${weather.refresh.interval-ms:600000}")
+    public void scheduledRefresh() {
+        try {
+            weatherService.refreshForecast();
+        }
+        catch (Exception e) {
+            log.error("Ошибка фонового обновления прогноза погоды: {}", e.getMessage(), e);
+        }
+    }
+}
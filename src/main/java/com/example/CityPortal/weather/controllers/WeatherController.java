@@ -7,22 +7,30 @@ import lombok.AllArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @AllArgsConstructor
 @RequestMapping("/api/weather")
 public class WeatherController {
     private final WeatherService weatherService;
 
+    @GetMapping("/cities")
+    public List<String> getCities() {
+        return weatherService.getCities();
+    }
+
     @GetMapping("/widget")
-    public WeatherWidgetDto getWidget() {
-        return weatherService.getWidget();
+    public WeatherWidgetDto getWidget(@RequestParam(required = false) String city) {
+        return weatherService.getWidget(city);
     }
 
     @GetMapping("/details")
-    public WeatherDetailsDto getDetails() {
-        return weatherService.getDetails();
+    public WeatherDetailsDto getDetails(@RequestParam(required = false) String city) {
+        return weatherService.getDetails(city);
     }
 }
 
@@ -3,7 +3,11 @@ package com.example.CityPortal.weather.services;
 import com.example.CityPortal.weather.dtos.WeatherDetailsDto;
 import com.example.CityPortal.weather.dtos.WeatherWidgetDto;
 
+import java.util.List;
+
 public interface WeatherService {
-    WeatherWidgetDto getWidget();
-    WeatherDetailsDto getDetails();
+    List<String> getCities();
+    WeatherWidgetDto getWidget(String city);
+    WeatherDetailsDto getDetails(String city);
+    void refreshForecast();
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.example.CityPortal.weather.services.impls;
+
+import java.time.Instant;
+import java.time.zone.ZoneRules;
+
+record ForecastColumns(
+        ZoneRules zoneRules,
+        long currentTime,
+        double currentTemp,
+        double currentFeels,
+        short currentCode,
+        boolean currentIsDay,
+        long[] hourlyTime,
+        double[] hourlyTemp,
+        double[] hourlyFeels,
+        short[] hourlyCode,
+        long[] dailyDate,
+        double[] dailyMin,
+        double[] dailyMax,
+        short[] dailyCode
+) {
+    int hourlyCount() {
+        return Math.min(hourlyTime.length, Math.min(hourlyTemp.length, Math.min(hourlyFeels.length, hourlyCode.length)));
+    }
+
+    int dailyCount() {
+        return Math.min(dailyDate.length, Math.min(dailyMin.length, Math.min(dailyMax.length, dailyCode.length)));
+    }
+
+    long localDay(long epochSecond) {
+        int offset = zoneRules.getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+        return Math.floorDiv(epochSecond + offset, 86_400L);
+    }
+}
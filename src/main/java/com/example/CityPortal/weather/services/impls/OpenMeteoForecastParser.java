@@ -0,0 +1,250 @@
+package com.example.CityPortal.weather.services.impls;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+final class OpenMeteoForecastParser {
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final long[] NO_LONGS = new long[0];
+    private static final double[] NO_DOUBLES = new double[0];
+    private static final short[] NO_SHORTS = new short[0];
+
+    private OpenMeteoForecastParser() { }
+
+    static List<ForecastColumns> parse(InputStream in) throws IOException {
+        try (JsonParser p = JSON.createParser(in)) {
+            return parse(p);
+        }
+    }
+
+    static List<ForecastColumns> parse(byte[] body) throws IOException {
+        try (JsonParser p = JSON.createParser(body)) {
+            return parse(p);
+        }
+    }
+
+    private static List<ForecastColumns> parse(JsonParser p) throws IOException {
+        JsonToken token = p.nextToken();
+        List<ForecastColumns> result = new ArrayList<>();
+        if (token == JsonToken.START_ARRAY) {
+            while (p.nextToken() == JsonToken.START_OBJECT)
+                result.add(readLocation(p));
+        }
+        else if (token == JsonToken.START_OBJECT) {
+            result.add(readLocation(p));
+        }
+        else {
+            throw new IOException("Неожиданный ответ Open-Meteo: " + token);
+        }
+        return result;
+    }
+
+    private static ForecastColumns readLocation(JsonParser p) throws IOException {
+        Builder b = new Builder();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "utc_offset_seconds" -> b.utcOffsetSeconds = p.getIntValue();
+                case "timezone" -> b.timezone = p.getText();
+                case "current" -> readCurrent(p, b);
+                case "hourly" -> readHourly(p, b);
+                case "daily" -> readDaily(p, b);
+                case "error" -> {
+                    if (p.currentToken() == JsonToken.VALUE_TRUE)
+                        throw new IOException("Open-Meteo вернул ошибку");
+                }
+                default -> p.skipChildren();
+            }
+        }
+        return b.build();
+    }
+
+    private static void readCurrent(JsonParser p, Builder b) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "time" -> b.currentTime = parseLocalDateTime(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+                case "temperature_2m" -> b.currentTemp = readDouble(p, value);
+                case "apparent_temperature" -> b.currentFeels = readDouble(p, value);
+                case "weathercode" -> b.currentCode = (short) readDouble(p, value);
+                case "is_day" -> b.currentIsDay = readDouble(p, value) == 1;
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    private static void readHourly(JsonParser p, Builder b) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "time" -> b.hourlyTime = readTimes(p, false);
+                case "temperature_2m" -> b.hourlyTemp = readDoubles(p);
+                case "apparent_temperature" -> b.hourlyFeels = readDoubles(p);
+                case "weathercode" -> b.hourlyCode = readShorts(p);
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    private static void readDaily(JsonParser p, Builder b) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            switch (field) {
+                case "time" -> b.dailyDate = readTimes(p, true);
+                case "temperature_2m_max" -> b.dailyMax = readDoubles(p);
+                case "temperature_2m_min" -> b.dailyMin = readDoubles(p);
+                case "weathercode" -> b.dailyCode = readShorts(p);
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    private static long[] readTimes(JsonParser p, boolean dateOnly) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return NO_LONGS;
+        }
+        long[] values = new long[32];
+        int n = 0;
+        while (p.nextToken() == JsonToken.VALUE_STRING) {
+            if (n == values.length)
+                values = Arrays.copyOf(values, n * 2);
+            char[] chars = p.getTextCharacters();
+            int offset = p.getTextOffset();
+            values[n++] = dateOnly
+                    ? epochDay(chars, offset)
+                    : parseLocalDateTime(chars, offset, p.getTextLength());
+        }
+        return Arrays.copyOf(values, n);
+    }
+
+    private static double[] readDoubles(JsonParser p) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return NO_DOUBLES;
+        }
+        double[] values = new double[32];
+        int n = 0;
+        JsonToken token;
+        while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+            if (n == values.length)
+                values = Arrays.copyOf(values, n * 2);
+            values[n++] = readDouble(p, token);
+        }
+        return Arrays.copyOf(values, n);
+    }
+
+    private static short[] readShorts(JsonParser p) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return NO_SHORTS;
+        }
+        short[] values = new short[32];
+        int n = 0;
+        JsonToken token;
+        while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+            if (n == values.length)
+                values = Arrays.copyOf(values, n * 2);
+            values[n++] = (short) readDouble(p, token);
+        }
+        return Arrays.copyOf(values, n);
+    }
+
+    private static double readDouble(JsonParser p, JsonToken token) throws IOException {
+        return token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT
+                ? p.getDoubleValue()
+                : 0.0;
+    }
+
+    static long parseLocalDateTime(char[] c, int offset, int length) {
+        long seconds = epochDay(c, offset) * 86_400L;
+        if (length >= 16)
+            seconds += digits(c, offset + 11, 2) * 3600L + digits(c, offset + 14, 2) * 60L;
+        return seconds;
+    }
+
+    static long epochDay(char[] c, int offset) {
+        int year = digits(c, offset, 4);
+        int month = digits(c, offset + 5, 2);
+        int day = digits(c, offset + 8, 2);
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yoe = y - era * 400;
+        int doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146_097L + doe - 719_468L;
+    }
+
+    static long toEpochSecond(long localSecond, ZoneRules rules) {
+        LocalDateTime local = LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC);
+        return localSecond - rules.getOffset(local).getTotalSeconds();
+    }
+
+    private static int digits(char[] c, int offset, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++)
+            value = value * 10 + (c[offset + i] - '0');
+        return value;
+    }
+
+    private static final class Builder {
+        int utcOffsetSeconds;
+        String timezone;
+        long currentTime;
+        double currentTemp;
+        double currentFeels;
+        short currentCode;
+        boolean currentIsDay;
+        long[] hourlyTime = NO_LONGS;
+        double[] hourlyTemp = NO_DOUBLES;
+        double[] hourlyFeels = NO_DOUBLES;
+        short[] hourlyCode = NO_SHORTS;
+        long[] dailyDate = NO_LONGS;
+        double[] dailyMin = NO_DOUBLES;
+        double[] dailyMax = NO_DOUBLES;
+        short[] dailyCode = NO_SHORTS;
+
+        ForecastColumns build() {
+            ZoneRules rules = zoneRules();
+            if (rules.isFixedOffset()) {
+                int offset = rules.getOffset(Instant.EPOCH).getTotalSeconds();
+                for (int i = 0; i < hourlyTime.length; i++)
+                    hourlyTime[i] -= offset;
+            }
+            else {
+                for (int i = 0; i < hourlyTime.length; i++)
+                    hourlyTime[i] = toEpochSecond(hourlyTime[i], rules);
+            }
+            return new ForecastColumns(rules, toEpochSecond(currentTime, rules), currentTemp, currentFeels, currentCode,
+                    currentIsDay, hourlyTime, hourlyTemp, hourlyFeels, hourlyCode, dailyDate, dailyMin, dailyMax, dailyCode);
+        }
+
+        private ZoneRules zoneRules() {
+            if (timezone != null) {
+                try {
+                    return ZoneId.of(timezone).getRules();
+                }
+                catch (DateTimeException ignored) {
+                }
+            }
+            return ZoneOffset.ofTotalSeconds(utcOffsetSeconds).getRules();
+        }
+    }
+}
@@ -1,128 +1,205 @@
 package com.example.CityPortal.weather.services.impls;
 import com.example.CityPortal.weather.config.WeatherApiProperties;
 import com.example.CityPortal.weather.config.WeatherCityProperties;
+import com.example.CityPortal.weather.config.WeatherCityProperties.District;
 import com.example.CityPortal.weather.dtos.DailyDto;
 import com.example.CityPortal.weather.dtos.HourlyDto;
 import com.example.CityPortal.weather.dtos.WeatherDetailsDto;
 import com.example.CityPortal.weather.dtos.WeatherWidgetDto;
 import com.example.CityPortal.weather.services.WeatherService;
-import lombok.AllArgsConstructor;
-import org.springframework.cache.annotation.Cacheable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Primary;
-import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.server.ResponseStatusException;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
-@AllArgsConstructor
+@RequiredArgsConstructor
 @Primary
 public class WeatherServiceImpl implements WeatherService {
     private final RestClient restClient;
     private final WeatherApiProperties weatherApiProperties;
     private final WeatherCityProperties weatherCityProperties;
-    private static final DateTimeFormatter ISO_LOCAL = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
-    private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
-    @SuppressWarnings("unchecked")
-    private Map<String, Object> fetchForecast() {
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile Map<String, ForecastSnapshot> snapshots;
+    private volatile Instant lastFailureAt;
+
+    private record ForecastSnapshot(WeatherWidgetDto widget, WeatherDetailsDto details, Instant fetchedAt) { }
+
+    private List<District> locations() {
+        List<District> locations = new ArrayList<>();
+        locations.add(new District(weatherCityProperties.name(), weatherCityProperties.latitude(), weatherCityProperties.longitude()));
+        locations.addAll(weatherCityProperties.districts());
+        return locations;
+    }
+
+    private List<ForecastColumns> fetchForecasts(List<District> locations) {
+        String latitudes = locations.stream().map(l -> String.valueOf(l.latitude())).collect(Collectors.joining(","));
+        String longitudes = locations.stream().map(l -> String.valueOf(l.longitude())).collect(Collectors.joining(","));
         String url = weatherApiProperties.baseUrl() + "/v1/forecast"
-                + "?latitude=" + weatherCityProperties.latitude()
-                + "&longitude=" + weatherCityProperties.longitude()
+                + "?latitude=" + latitudes
+                + "&longitude=" + longitudes
                 + "&current=temperature_2m,apparent_temperature,weathercode,windspeed_10m,is_day"
                 + "&hourly=temperature_2m,apparent_temperature,weathercode"
                 + "&daily=weathercode,temperature_2m_max,temperature_2m_min"
                 + "&timezone=" + weatherCityProperties.timezone()
                 + "&forecast_days=" + weatherApiProperties.days();
 
-        return restClient.get()
+        List<ForecastColumns> forecasts = restClient.get()
                 .uri(url)
-                .retrieve()
-                .body(new ParameterizedTypeReference<Map<String, Object>>() {});
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().isError())
+                        throw new IllegalStateException("Open-Meteo ответил " + response.getStatusCode().value());
+                    return OpenMeteoForecastParser.parse(response.getBody());
+                });
+        if (forecasts == null || forecasts.size() != locations.size())
+            throw new IllegalStateException("Open-Meteo вернул " + (forecasts == null ? 0 : forecasts.size())
+                    + " прогнозов вместо " + locations.size());
+        return forecasts;
     }
 
-    @SuppressWarnings("unchecked")
     @Override
-    public WeatherWidgetDto getWidget() {
-        Map<String, Object> root = fetchForecast();
-        Map<String, Object> current = (Map<String, Object>) root.get("current");
+    public List<String> getCities() {
+        return locations().stream().map(District::name).toList();
+    }
 
-        int code = toInt(current.get("weathercode"));
-        boolean isDay = toInt(current.get("is_day")) == 1;
-        String timeStr = (String) current.get("time");
-        Instant updatedAt = parseLocalTime(timeStr, weatherCityProperties.timezone());
+    @Override
+    public WeatherWidgetDto getWidget(String city) {
+        return currentSnapshot(city).widget();
+    }
 
-        return new WeatherWidgetDto(
-                weatherCityProperties.name(),
-                toDouble(current.get("temperature_2m")),
-                toDouble(current.get("apparent_temperature")),
-                wmoDescription(code),
-                wmoIcon(code, isDay),
-                updatedAt
-        );
+    @Override
+    public WeatherDetailsDto getDetails(String city) {
+        return currentSnapshot(city).details();
     }
 
-    @SuppressWarnings("unchecked")
     @Override
-    public WeatherDetailsDto getDetails() {
-        Map<String, Object> root = fetchForecast();
-        Map<String, Object> current = (Map<String, Object>) root.get("current");
-
-        int currentCode = toInt(current.get("weathercode"));
-        boolean isDay = toInt(current.get("is_day")) == 1;
-        String timeStr = (String) current.get("time");
-        Instant updatedAt = parseLocalTime(timeStr, weatherCityProperties.timezone());
-
-        WeatherWidgetDto currentDto = new WeatherWidgetDto(
-                weatherCityProperties.name(),
-                toDouble(current.get("temperature_2m")),
-                toDouble(current.get("apparent_temperature")),
-                wmoDescription(currentCode),
-                wmoIcon(currentCode, isDay),
-                updatedAt
-        );
+    public void refreshForecast() {
+        refreshLock.lock();
+        try {
+            long started = System.currentTimeMillis();
+            List<District> locations = locations();
+            List<ForecastColumns> forecasts;
+            try {
+                forecasts = fetchForecasts(locations);
+            }
+            catch (RuntimeException e) {
+                lastFailureAt = Instant.now();
+                throw e;
+            }
+            Instant fetchedAt = Instant.now();
+            Map<String, ForecastSnapshot> fresh = new HashMap<>();
+            for (int i = 0; i < locations.size(); i++) {
+                String name = locations.get(i).name();
+                WeatherWidgetDto widget = buildWidget(name, forecasts.get(i));
+                fresh.put(cityKey(name), new ForecastSnapshot(widget, buildDetails(forecasts.get(i), widget), fetchedAt));
+            }
+            snapshots = Map.copyOf(fresh);
+            lastFailureAt = null;
+            log.debug("Прогноз погоды для {} городов обновлён за {} мс", locations.size(), System.currentTimeMillis() - started);
+        }
+        finally {
+            refreshLock.unlock();
+        }
+    }
 
-        Map<String, Object> hourly = (Map<String, Object>) root.get("hourly");
-        List<String> hourlyTimes = (List<String>) hourly.get("time");
-        List<Number> hourlyTemps = (List<Number>) hourly.get("temperature_2m");
-        List<Number> hourlyFeels = (List<Number>) hourly.get("apparent_temperature");
-        List<Number> hourlyCodes = (List<Number>) hourly.get("weathercode");
-        String todayPrefix = hourlyTimes.get(0).substring(0, 10);
-        List<HourlyDto> hourlyList = new ArrayList<>();
-
-        for (int i = 0; i < hourlyTimes.size(); i++) {
-            String t = hourlyTimes.get(i);
-            if (!t.startsWith(todayPrefix)) break;
-            int hCode = hourlyCodes.get(i).intValue();
-            hourlyList.add(new HourlyDto(
-                    parseLocalTime(t, weatherCityProperties.timezone()),
-                    hourlyTemps.get(i).doubleValue(),
-                    hourlyFeels.get(i).doubleValue(),
-                    wmoDescription(hCode),
-                    wmoIcon(hCode, true)
-            ));
+    private ForecastSnapshot currentSnapshot(String city) {
+        String key = cityKey(city == null || city.isBlank() ? weatherCityProperties.name() : city);
+        Map<String, ForecastSnapshot> current = snapshots;
+        if (current == null) {
+            refreshLock.lock();
+            try {
+                if (snapshots == null) {
+                    if (inRetryBackoff())
+                        throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Прогноз погоды временно недоступен");
+                    refreshForecast();
+                }
+                current = snapshots;
+            }
+            catch (ResponseStatusException e) {
+                throw e;
+            }
+            catch (Exception e) {
+                log.error("Не удалось получить прогноз погоды: {}", e.getMessage());
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Прогноз погоды временно недоступен");
+            }
+            finally {
+                refreshLock.unlock();
+            }
+        }
+        ForecastSnapshot snapshot = current.get(key);
+        if (snapshot == null)
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Город не найден: " + city);
+        Duration age = Duration.between(snapshot.fetchedAt(), Instant.now());
+        if (age.toMinutes() >= weatherApiProperties.maxAgeMinutes()) {
+            log.warn("Прогноз погоды устарел: обновлён {} мин назад", age.toMinutes());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Прогноз погоды временно недоступен");
         }
+        return snapshot;
+    }
+
+    private boolean inRetryBackoff() {
+        Instant failedAt = lastFailureAt;
+        return failedAt != null
+                && failedAt.plusSeconds(weatherApiProperties.retryBackoffSeconds()).isAfter(Instant.now());
+    }
+
+    private static String cityKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
 
-        Map<String, Object> daily = (Map<String, Object>) root.get("daily");
-        List<String> dailyDates = (List<String>) daily.get("time");
-        List<Number> dailyMax = (List<Number>) daily.get("temperature_2m_max");
-        List<Number> dailyMin = (List<Number>) daily.get("temperature_2m_min");
-        List<Number> dailyCodes = (List<Number>) daily.get("weathercode");
-        List<DailyDto> dailyList = new ArrayList<>();
+    private WeatherWidgetDto buildWidget(String city, ForecastColumns forecast) {
+        int code = forecast.currentCode();
+        return new WeatherWidgetDto(
+                city,
+                forecast.currentTemp(),
+                forecast.currentFeels(),
+                wmoDescription(code),
+                wmoIcon(code, forecast.currentIsDay()),
+                Instant.ofEpochSecond(forecast.currentTime())
+        );
+    }
 
-        for (int i = 0; i < dailyDates.size(); i++) {
-            int dCode = dailyCodes.get(i).intValue();
+    private WeatherDetailsDto buildDetails(ForecastColumns forecast, WeatherWidgetDto currentDto) {
+        int hourlyCount = forecast.hourlyCount();
+        long[] times = forecast.hourlyTime();
+        List<HourlyDto> hourlyList = new ArrayList<>(Math.min(hourlyCount, 24));
+        if (hourlyCount > 0) {
+            long today = forecast.localDay(times[0]);
+            for (int i = 0; i < hourlyCount && forecast.localDay(times[i]) == today; i++) {
+                int hCode = forecast.hourlyCode()[i];
+                hourlyList.add(new HourlyDto(
+                        Instant.ofEpochSecond(times[i]),
+                        forecast.hourlyTemp()[i],
+                        forecast.hourlyFeels()[i],
+                        wmoDescription(hCode),
+                        wmoIcon(hCode, true)
+                ));
+            }
+        }
+
+        int dailyCount = forecast.dailyCount();
+        List<DailyDto> dailyList = new ArrayList<>(dailyCount);
+        for (int i = 0; i < dailyCount; i++) {
+            int dCode = forecast.dailyCode()[i];
             dailyList.add(new DailyDto(
-                    LocalDate.parse(dailyDates.get(i), DATE_FMT),
-                    dailyMin.get(i).doubleValue(),
-                    dailyMax.get(i).doubleValue(),
+                    LocalDate.ofEpochDay(forecast.dailyDate()[i]),
+                    forecast.dailyMin()[i],
+                    forecast.dailyMax()[i],
                     wmoDescription(dCode),
                     wmoIcon(dCode, true)
             ));
@@ -131,19 +208,6 @@ public class WeatherServiceImpl implements WeatherService {
         return new WeatherDetailsDto(currentDto, hourlyList, dailyList);
     }
 
-    private Instant parseLocalTime(String isoLocal, String timezone) {
-        LocalDateTime ldt = LocalDateTime.parse(isoLocal, ISO_LOCAL);
-        return ldt.atZone(ZoneId.of(timezone)).toInstant();
-    }
-
-    private double toDouble(Object v) {
-        return v instanceof Number ? ((Number) v).doubleValue() : 0.0;
-    }
-
-    private int toInt(Object v) {
-        return v instanceof Number ? ((Number) v).intValue() : 0;
-    }
-
     private String wmoDescription(int code) {
         return switch (code) {
             case 0 -> "Ясно";
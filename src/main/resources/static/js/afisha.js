@@ -241,15 +241,19 @@ function EventsList() {
   const [search, setSearch]    = useState("");
   const [dateFrom, setDateFrom] = useState("");
   const [dateTo,   setDateTo]   = useState("");
+  const [priceMax, setPriceMax] = useState("");
+  const [sort,     setSort]     = useState("");
   const isMobile = useIsMobile();
 
-  const load = useCallback((p, titleFilter, from, to) => {
+  const load = useCallback((p, titleFilter, from, to, maxPrice, sortBy) => {
     setLoading(true);
     setError(null);
     let url = `/api/afisha?page=${p}&size=16`;
     if (titleFilter && titleFilter.trim()) url += `&title=${encodeURIComponent(titleFilter.trim())}`;
     if (from && from.trim()) url += `&dateFrom=${encodeURIComponent(from.trim())}`;
     if (to   && to.trim())   url += `&dateTo=${encodeURIComponent(to.trim())}`;
+    if (maxPrice && String(maxPrice).trim()) url += `&priceMax=${encodeURIComponent(String(maxPrice).trim())}`;
+    if (sortBy) url += `&sort=${encodeURIComponent(sortBy)}`;
     fetch(url)
       .then(r => { if (!r.ok) throw new Error("Ошибка загрузки"); return r.json(); })
       .then(data => {
@@ -262,24 +266,33 @@ function EventsList() {
       .finally(() => setLoading(false));
   }, []);
 
-  useEffect(() => { load(0, search, dateFrom, dateTo); }, [load]);
+  useEffect(() => { load(0, search, dateFrom, dateTo, priceMax, sort); }, [load]);
 
   const searchTimeout = useRef(null);
   function onSearchChange(val) {
     setSearch(val);
     clearTimeout(searchTimeout.current);
-    searchTimeout.current = setTimeout(() => load(0, val, dateFrom, dateTo), 300);
+    searchTimeout.current = setTimeout(() => load(0, val, dateFrom, dateTo, priceMax, sort), 300);
   }
 
-  function onDateFromChange(val) { setDateFrom(val); load(0, search, val, dateTo); }
-  function onDateToChange(val)   { setDateTo(val);   load(0, search, dateFrom, val); }
+  function onDateFromChange(val) { setDateFrom(val); load(0, search, val, dateTo, priceMax, sort); }
+  function onDateToChange(val)   { setDateTo(val);   load(0, search, dateFrom, val, priceMax, sort); }
+  function onSortChange(val)     { setSort(val);     load(0, search, dateFrom, dateTo, priceMax, val); }
+
+  const priceTimeout = useRef(null);
+  function onPriceMaxChange(val) {
+    const clean = val.replace(/\D/g, "");
+    setPriceMax(clean);
+    clearTimeout(priceTimeout.current);
+    priceTimeout.current = setTimeout(() => load(0, search, dateFrom, dateTo, clean, sort), 300);
+  }
 
   function clearFilters() {
-    setSearch(""); setDateFrom(""); setDateTo("");
-    load(0, "", "", "");
+    setSearch(""); setDateFrom(""); setDateTo(""); setPriceMax(""); setSort("");
+    load(0, "", "", "", "", "");
   }
 
-  const hasFilter = search || dateFrom || dateTo;
+  const hasFilter = search || dateFrom || dateTo || priceMax || sort;
 
   return (
     <main className="main">
@@ -310,6 +323,33 @@ function EventsList() {
           />
           <DatePicker label="📅 С" value={dateFrom} onChange={onDateFromChange} />
           <DatePicker label="📅 По" value={dateTo}   onChange={onDateToChange} />
+          <input
+            type="text"
+            inputMode="numeric"
+            placeholder="💰 До, ₽"
+            value={priceMax}
+            onChange={e => onPriceMaxChange(e.target.value)}
+            style={{
+              width: 110,
+              padding: "9px 14px", borderRadius: 10,
+              border: "1px solid rgba(255,255,255,0.18)",
+              background: "rgba(255,255,255,0.07)",
+              color: "var(--text, #fff)", fontSize: 14, outline: "none"
+            }}
+          />
+          <select
+            value={sort}
+            onChange={e => onSortChange(e.target.value)}
+            style={{
+              padding: "9px 14px", borderRadius: 10,
+              border: "1px solid rgba(255,255,255,0.18)",
+              background: "rgba(255,255,255,0.07)",
+              color: "var(--text, #fff)", fontSize: 14, outline: "none"
+            }}
+          >
+            <option value="">По дате</option>
+            <option value="price">По цене</option>
+          </select>
           {hasFilter && (
             <button className="btn smallbtn secondary" onClick={clearFilters} style={{ whiteSpace: "nowrap" }}>
               ✕ Сбросить
@@ -388,9 +428,9 @@ function EventsList() {
 
           {totalPages > 1 && (
             <div style={{ display: "flex", justifyContent: "center", gap: 8, marginTop: 14, flexWrap: "wrap" }}>
-              <button className="btn smallbtn secondary" onClick={() => load(page - 1, search, dateFrom, dateTo)} disabled={page === 0}>← Назад</button>
+              <button className="btn smallbtn secondary" onClick={() => load(page - 1, search, dateFrom, dateTo, priceMax, sort)} disabled={page === 0}>← Назад</button>
               <span className="small muted" style={{ alignSelf: "center" }}>Страница {page + 1} из {totalPages}</span>
-              <button className="btn smallbtn secondary" onClick={() => load(page + 1, search, dateFrom, dateTo)} disabled={page >= totalPages - 1}>Вперёд →</button>
+              <button className="btn smallbtn secondary" onClick={() => load(page + 1, search, dateFrom, dateTo, priceMax, sort)} disabled={page >= totalPages - 1}>Вперёд →</button>
             </div>
           )}
         </div>
@@ -7,6 +7,15 @@ function formatDate(iso) {
   });
 }
 
+function renderSnippet(snippet) {
+  return snippet.split(/(<mark>.*?<\/mark>)/g).map((part, i) => {
+    const m = part.match(/^<mark>(.*)<\/mark>$/);
+    return m
+      ? <mark key={i} style={{ background: "rgba(124,58,237,0.45)", color: "inherit", borderRadius: 3, padding: "0 2px" }}>{m[1]}</mark>
+      : part;
+  });
+}
+
 function getNewsId() {
   const match = window.location.pathname.match(/\/news\/(\d+)/);
   return match ? Number(match[1]) : null;
@@ -241,7 +250,9 @@ function NewsList() {
   const [items, setItems]       = useState([]);
   const [page, setPage]         = useState(0);
   const [totalPages, setTotal]  = useState(0);
+  const [cursor, setCursor]     = useState(null);
   const [loading, setLoading]   = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [error, setError]       = useState(null);
   const [search, setSearch] = useState("");
   const [date, setDate]     = useState("");
@@ -250,8 +261,23 @@ function NewsList() {
   const load = useCallback((p, titleFilter, dateFilter) => {
     setLoading(true);
     setError(null);
+    const filtered = (titleFilter && titleFilter.trim()) || (dateFilter && dateFilter.trim());
+    if (!filtered) {
+      fetch("/api/news?after=&size=12")
+        .then(r => { if (!r.ok) throw new Error("Ошибка загрузки"); return r.json(); })
+        .then(data => {
+          setItems(data.content || []);
+          setCursor(data.hasNext ? data.nextCursor : null);
+          setTotal(0);
+          setPage(0);
+        })
+        .catch(e => setError(e.message))
+        .finally(() => setLoading(false));
+      return;
+    }
+    setCursor(null);
     let url = `/api/news?page=${p}&size=12`;
-    if (titleFilter && titleFilter.trim()) url += `&title=${encodeURIComponent(titleFilter.trim())}`;
+    if (titleFilter && titleFilter.trim()) url += `&title=${encodeURIComponent(titleFilter.trim())}&highlight=true`;
     if (dateFilter && dateFilter.trim())   url += `&date=${encodeURIComponent(dateFilter.trim())}`;
     fetch(url)
       .then(r => { if (!r.ok) throw new Error("Ошибка загрузки"); return r.json(); })
@@ -267,6 +293,19 @@ function NewsList() {
 
   useEffect(() => { load(0, search, date); }, [load]);
 
+  function loadMore() {
+    if (!cursor) return;
+    setLoadingMore(true);
+    fetch(`/api/news?after=${encodeURIComponent(cursor)}&size=12`)
+      .then(r => { if (!r.ok) throw new Error("Ошибка загрузки"); return r.json(); })
+      .then(data => {
+        setItems(prev => prev.concat(data.content || []));
+        setCursor(data.hasNext ? data.nextCursor : null);
+      })
+      .catch(e => setError(e.message))
+      .finally(() => setLoadingMore(false));
+  }
+
   const searchTimeout = React.useRef(null);
   function onSearchChange(val) {
     setSearch(val);
@@ -380,6 +419,12 @@ function NewsList() {
                     overflow: "hidden", display: "-webkit-box",
                     WebkitLineClamp: 3, WebkitBoxOrient: "vertical"
                   }}>{item.title}</div>
+                  {item.snippet && (
+                    <div style={{ fontSize: 12, lineHeight: 1.4, color: "var(--muted)",
+                      overflow: "hidden", display: "-webkit-box",
+                      WebkitLineClamp: 2, WebkitBoxOrient: "vertical"
+                    }}>{renderSnippet(item.snippet)}</div>
+                  )}
                   <div style={{ marginTop: "auto", fontSize: 11, color: "var(--muted)" }}>{formatDate(item.publishedAt)}</div>
                 </div>
               </a>
@@ -394,6 +439,14 @@ function NewsList() {
               <button className="btn smallbtn secondary" onClick={() => load(page + 1, search, date)} disabled={page >= totalPages - 1}>Вперёд →</button>
             </div>
           )}
+
+          {!hasFilter && cursor && !loading && (
+            <div style={{ display: "flex", justifyContent: "center", marginTop: 14 }}>
+              <button className="btn smallbtn secondary" onClick={loadMore} disabled={loadingMore}>
+                {loadingMore ? "Загрузка..." : "Показать ещё"}
+              </button>
+            </div>
+          )}
         </div>
       </section>
 
@@ -425,7 +478,7 @@ function NewsDetail({ newsId }) {
 
         {item.imageUrl && (
           <div style={{ borderRadius: 12, overflow: "hidden", marginBottom: 20, background: "rgba(0,0,0,0.20)", display: "flex", justifyContent: "center" }}>
-            <img src={item.imageUrl} alt={item.title} style={{ width: "100%", maxHeight: 480, objectFit: "contain" }}
+            <img src={item.imageUrl.startsWith("/api/images/") ? item.imageUrl + "?w=1280" : item.imageUrl} alt={item.title} style={{ width: "100%", maxHeight: 480, objectFit: "contain" }}
                  onError={e => e.currentTarget.style.display = "none"} />
           </div>
         )}
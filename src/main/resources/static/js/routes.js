@@ -32,7 +32,7 @@ function useIsMobile() {
   return mobile;
 }
 
-function TypeMultiSelect({ selected, onChange }) {
+function TypeMultiSelect({ selected, onChange, counts }) {
   const [open, setOpen] = useState(false);
   const ref = useRef(null);
 
@@ -135,6 +135,11 @@ function TypeMultiSelect({ selected, onChange }) {
                 }}>
                   {t.label}
                 </span>
+                {counts && (
+                  <span style={{ marginLeft: "auto", fontSize: 12, color: "#94a3b8" }}>
+                    {counts[t.value] || 0}
+                  </span>
+                )}
               </div>
             );
           })}
@@ -294,6 +299,22 @@ function RoutesList() {
   const [search, setSearch]        = useState("");
   const [selectedTypes, setSelectedTypes] = useState([]);
   const isMobile = useIsMobile();
+  const seed = useRef(Math.floor(Math.random() * 2147483646) + 1);
+  const [typeCounts, setTypeCounts] = useState(null);
+
+  const loadFacets = useCallback((titleFilter) => {
+    let url = "/api/routes/facets";
+    if (titleFilter && titleFilter.trim()) url += `?title=${encodeURIComponent(titleFilter.trim())}`;
+    fetch(url)
+      .then(r => r.ok ? r.json() : null)
+      .then(data => {
+        if (!data) return;
+        const counts = {};
+        (data.routeTypes || []).forEach(f => { counts[f.value] = f.count; });
+        setTypeCounts(counts);
+      })
+      .catch(() => {});
+  }, []);
 
   const load = useCallback((p, titleFilter, types) => {
     setLoading(true);
@@ -306,6 +327,7 @@ function RoutesList() {
     if (hasTitle) url += `&title=${encodeURIComponent(titleFilter.trim())}`;
     if (hasTypes) types.forEach(t => { url += `&routeTypes=${encodeURIComponent(t)}`; });
     if (!hasTitle && !hasTypes) url += `&random=true`;
+    url += `&seed=${seed.current}`;
 
     fetch(url)
       .then(r => { if (!r.ok) throw new Error("Ошибка загрузки"); return r.json(); })
@@ -319,13 +341,13 @@ function RoutesList() {
       .finally(() => setLoading(false));
   }, []);
 
-  useEffect(() => { load(0, search, selectedTypes); }, [load]);
+  useEffect(() => { load(0, search, selectedTypes); loadFacets(search); }, [load, loadFacets]);
 
   const searchTimeout = useRef(null);
   function onSearchChange(val) {
     setSearch(val);
     clearTimeout(searchTimeout.current);
-    searchTimeout.current = setTimeout(() => load(0, val, selectedTypes), 300);
+    searchTimeout.current = setTimeout(() => { load(0, val, selectedTypes); loadFacets(val); }, 300);
   }
 
   function onTypesChange(types) {
@@ -336,6 +358,7 @@ function RoutesList() {
   function clearFilters() {
     setSearch(""); setSelectedTypes([]);
     load(0, "", []);
+    loadFacets("");
   }
 
   const hasFilter = search || selectedTypes.length > 0;
@@ -368,7 +391,7 @@ function RoutesList() {
               color: "var(--text, #fff)", fontSize: 14, outline: "none"
             }}
           />
-          <TypeMultiSelect selected={selectedTypes} onChange={onTypesChange} />
+          <TypeMultiSelect selected={selectedTypes} onChange={onTypesChange} counts={typeCounts} />
           {hasFilter && (
             <button className="btn smallbtn secondary" onClick={clearFilters} style={{ whiteSpace: "nowrap" }}>
               ✕ Сбросить
@@ -50,11 +50,23 @@ function WeatherPage() {
   const [data, setData]       = useState(null);
   const [loading, setLoading] = useState(true);
   const [error, setError]     = useState(null);
+  const [cities, setCities]   = useState([]);
+  const [city, setCity]       = useState("");
+
+  useEffect(() => {
+    fetch("/api/weather/cities")
+      .then(r => r.ok ? r.json() : [])
+      .then(list => setCities(list || []))
+      .catch(() => {});
+  }, []);
 
   useEffect(() => {
     (async () => {
+      setLoading(true);
+      setError(null);
       try {
-        const res = await fetch("/api/weather/details");
+        const url = city ? `/api/weather/details?city=${encodeURIComponent(city)}` : "/api/weather/details";
+        const res = await fetch(url);
         if (!res.ok) throw new Error("Ошибка загрузки данных погоды");
         setData(await res.json());
       } catch (e) {
@@ -63,7 +75,7 @@ function WeatherPage() {
         setLoading(false);
       }
     })();
-  }, []);
+  }, [city]);
 
   return (
     <div className="home">
@@ -78,6 +90,12 @@ function WeatherPage() {
           </div>
         </div>
         <div className="topbar-right">
+          {cities.length > 1 && (
+            <select className="input" value={city || cities[0]} onChange={e => setCity(e.target.value)}
+                    style={{ width: "auto", marginRight: 8 }}>
+              {cities.map(c => <option key={c} value={c}>{c}</option>)}
+            </select>
+          )}
           <a className="btn smallbtn secondary" href="/">← На главную</a>
         </div>
       </header>
@@ -0,0 +1,107 @@
+package com.example.CityPortal.weather.services.impls;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpenMeteoForecastParserBenchmark {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() { };
+	private static final DateTimeFormatter ISO_LOCAL = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+	private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+	private static final String TIMEZONE = "Asia/Yekaterinburg";
+
+	@Param({"7", "16"})
+	private int days;
+
+	private byte[] body;
+
+	@Setup
+	public void setUp() {
+		body = forecastJson(days).getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	@SuppressWarnings("unchecked")
+	public void mapParse(Blackhole bh) throws IOException {
+		Map<String, Object> root = MAPPER.readValue(body, MAP_TYPE);
+		Map<String, Object> hourly = (Map<String, Object>) root.get("hourly");
+		List<String> times = (List<String>) hourly.get("time");
+		List<Number> temps = (List<Number>) hourly.get("temperature_2m");
+		for (int i = 0; i < times.size(); i++) {
+			Instant at = LocalDateTime.parse(times.get(i), ISO_LOCAL).atZone(ZoneId.of(TIMEZONE)).toInstant();
+			bh.consume(at);
+			bh.consume(temps.get(i).doubleValue());
+		}
+		Map<String, Object> daily = (Map<String, Object>) root.get("daily");
+		for (String date : (List<String>) daily.get("time"))
+			bh.consume(LocalDate.parse(date, DATE_FMT));
+	}
+
+	@Benchmark
+	public List<ForecastColumns> columnarParse() throws IOException {
+		return OpenMeteoForecastParser.parse(body);
+	}
+
+	public static void main(String[] args) throws Exception {
+		org.openjdk.jmh.Main.main(args);
+	}
+
+	private static String forecastJson(int days) {
+		LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+		StringBuilder times = new StringBuilder();
+		StringBuilder temps = new StringBuilder();
+		StringBuilder codes = new StringBuilder();
+		for (int i = 0; i < days * 24; i++) {
+			String sep = i == 0 ? "" : ",";
+			times.append(sep).append('"').append(start.plusHours(i).format(ISO_LOCAL)).append('"');
+			temps.append(sep).append(-12.5 + (i % 17) * 0.7);
+			codes.append(sep).append(i % 4 == 0 ? 3 : 61);
+		}
+		StringBuilder dates = new StringBuilder();
+		StringBuilder dailyTemps = new StringBuilder();
+		StringBuilder dailyCodes = new StringBuilder();
+		for (int i = 0; i < days; i++) {
+			String sep = i == 0 ? "" : ",";
+			dates.append(sep).append('"').append(start.toLocalDate().plusDays(i)).append('"');
+			dailyTemps.append(sep).append(-8.0 + i);
+			dailyCodes.append(sep).append(i % 2 == 0 ? 3 : 71);
+		}
+		return "{\"latitude\":51.77,\"longitude\":55.1,\"utc_offset_seconds\":18000,\"timezone\":\"" + TIMEZONE + "\","
+				+ "\"current\":{\"time\":\"2025-01-01T12:00\",\"temperature_2m\":-10.4,"
+				+ "\"apparent_temperature\":-15.2,\"weathercode\":3,\"is_day\":1},"
+				+ "\"hourly\":{\"time\":[" + times + "],\"temperature_2m\":[" + temps + "],"
+				+ "\"apparent_temperature\":[" + temps + "],\"weathercode\":[" + codes + "]},"
+				+ "\"daily\":{\"time\":[" + dates + "],\"temperature_2m_max\":[" + dailyTemps + "],"
+				+ "\"temperature_2m_min\":[" + dailyTemps + "],\"weathercode\":[" + dailyCodes + "]}}";
+	}
+}
@@ -0,0 +1,153 @@
+package com.example.CityPortal.weather.services.impls;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OpenMeteoForecastParserTests {
+
+	@Test
+	void epochDayMatchesLocalDate() {
+		for (LocalDate date = LocalDate.of(1899, 12, 1); date.isBefore(LocalDate.of(2101, 3, 1)); date = date.plusDays(1)) {
+			char[] text = date.toString().toCharArray();
+			assertEquals(date.toEpochDay(), OpenMeteoForecastParser.epochDay(text, 0), date.toString());
+		}
+	}
+
+	@Test
+	void parseLocalDateTimeMatchesLocalDateTime() {
+		LocalDateTime end = LocalDateTime.of(2030, 1, 1, 0, 0);
+		for (LocalDateTime time = LocalDateTime.of(1968, 2, 27, 0, 0); time.isBefore(end); time = time.plusMinutes(97)) {
+			String text = time.toString();
+			assertEquals(time.toEpochSecond(ZoneOffset.UTC),
+					OpenMeteoForecastParser.parseLocalDateTime(text.toCharArray(), 0, text.length()), text);
+		}
+	}
+
+	@Test
+	void parseLocalDateTimeReadsAtBufferOffset() {
+		char[] buffer = "[\"2024-02-29T23:45\"]".toCharArray();
+		assertEquals(LocalDateTime.of(2024, 2, 29, 23, 45).toEpochSecond(ZoneOffset.UTC),
+				OpenMeteoForecastParser.parseLocalDateTime(buffer, 2, 16));
+	}
+
+	@Test
+	void parseLocalDateTimeAcceptsDateOnly() {
+		assertEquals(LocalDate.of(2025, 3, 30).toEpochDay() * 86_400L,
+				OpenMeteoForecastParser.parseLocalDateTime("2025-03-30".toCharArray(), 0, 10));
+	}
+
+	@Test
+	void parsesSingleLocationObject() throws IOException {
+		List<ForecastColumns> forecasts = parse(location("Asia/Yekaterinburg", 18000));
+
+		assertEquals(1, forecasts.size());
+		ForecastColumns f = forecasts.getFirst();
+		assertEquals(epoch("2025-01-01T12:00", "Asia/Yekaterinburg"), f.currentTime());
+		assertEquals(-10.4, f.currentTemp());
+		assertEquals(3, f.currentCode());
+		assertEquals(true, f.currentIsDay());
+		assertArrayEquals(new long[] {
+				epoch("2025-01-01T00:00", "Asia/Yekaterinburg"),
+				epoch("2025-01-01T01:00", "Asia/Yekaterinburg"),
+				epoch("2025-01-01T02:00", "Asia/Yekaterinburg")
+		}, f.hourlyTime());
+		assertArrayEquals(new double[] { -12.5, -11.8, -11.1 }, f.hourlyTemp());
+		assertArrayEquals(new short[] { 3, 61, 3 }, f.hourlyCode());
+		assertArrayEquals(new long[] { LocalDate.of(2025, 1, 1).toEpochDay(), LocalDate.of(2025, 1, 2).toEpochDay() },
+				f.dailyDate());
+		assertEquals(2, f.dailyCount());
+	}
+
+	@Test
+	void parsesMultiLocationArray() throws IOException {
+		List<ForecastColumns> forecasts = parse("[" + location("Asia/Yekaterinburg", 18000) + ","
+				+ location("Europe/Moscow", 10800) + "]");
+
+		assertEquals(2, forecasts.size());
+		assertEquals(epoch("2025-01-01T12:00", "Asia/Yekaterinburg"), forecasts.get(0).currentTime());
+		assertEquals(epoch("2025-01-01T12:00", "Europe/Moscow"), forecasts.get(1).currentTime());
+	}
+
+	@Test
+	void nullHourlyEntriesKeepColumnsAligned() throws IOException {
+		ForecastColumns f = parse("{\"utc_offset_seconds\":0,\"timezone\":\"GMT\",\"hourly\":{"
+				+ "\"time\":[\"2025-01-01T00:00\",\"2025-01-01T01:00\",\"2025-01-01T02:00\"],"
+				+ "\"temperature_2m\":[1.5,null,2.5],\"apparent_temperature\":[null,0.5,1.0],"
+				+ "\"weathercode\":[3,null,61]}}").getFirst();
+
+		assertEquals(3, f.hourlyCount());
+		assertArrayEquals(new double[] { 1.5, 0.0, 2.5 }, f.hourlyTemp());
+		assertArrayEquals(new double[] { 0.0, 0.5, 1.0 }, f.hourlyFeels());
+		assertArrayEquals(new short[] { 3, 0, 61 }, f.hourlyCode());
+	}
+
+	@Test
+	void missingSectionsYieldEmptyColumns() throws IOException {
+		ForecastColumns f = parse("{\"utc_offset_seconds\":18000,\"timezone\":\"Asia/Yekaterinburg\","
+				+ "\"current\":{\"time\":\"2025-01-01T12:00\",\"temperature_2m\":-10.4}}").getFirst();
+
+		assertEquals(0, f.hourlyCount());
+		assertEquals(0, f.dailyCount());
+		assertEquals(0, f.hourlyTime().length);
+		assertEquals(0, f.dailyDate().length);
+		assertEquals(-10.4, f.currentTemp());
+	}
+
+	@Test
+	void errorResponseIsRejected() {
+		assertThrows(IOException.class,
+				() -> parse("{\"error\":true,\"reason\":\"Cannot initialize WeatherVariable from invalid String value\"}"));
+	}
+
+	@Test
+	void hourlyTimesFollowDstTransitions() throws IOException {
+		String zone = "Europe/Berlin";
+		String[] local = { "2025-03-30T00:00", "2025-03-30T01:00", "2025-03-30T02:00", "2025-03-30T03:00",
+				"2025-10-26T01:00", "2025-10-26T02:00", "2025-10-26T03:00" };
+		StringBuilder times = new StringBuilder();
+		StringBuilder temps = new StringBuilder();
+		for (int i = 0; i < local.length; i++) {
+			times.append(i == 0 ? "" : ",").append('"').append(local[i]).append('"');
+			temps.append(i == 0 ? "" : ",").append(i);
+		}
+		ForecastColumns f = parse("{\"utc_offset_seconds\":3600,\"timezone\":\"" + zone + "\","
+				+ "\"current\":{\"time\":\"2025-07-01T12:00\"},"
+				+ "\"hourly\":{\"time\":[" + times + "],\"temperature_2m\":[" + temps + "]}}").getFirst();
+
+		for (int i = 0; i < local.length; i++)
+			assertEquals(epoch(local[i], zone), f.hourlyTime()[i], local[i]);
+		assertEquals(epoch("2025-07-01T12:00", zone), f.currentTime());
+		assertEquals(LocalDate.of(2025, 10, 26).toEpochDay(), f.localDay(epoch("2025-10-26T00:30", zone)));
+	}
+
+	private static List<ForecastColumns> parse(String json) throws IOException {
+		return OpenMeteoForecastParser.parse(json.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static long epoch(String localDateTime, String zone) {
+		return LocalDateTime.parse(localDateTime).atZone(ZoneId.of(zone)).toEpochSecond();
+	}
+
+	private static String location(String zone, int offset) {
+		return "{\"latitude\":51.77,\"longitude\":55.1,\"utc_offset_seconds\":" + offset + ","
+				+ "\"timezone\":\"" + zone + "\",\"current_units\":{\"time\":\"iso8601\"},"
+				+ "\"current\":{\"time\":\"2025-01-01T12:00\",\"temperature_2m\":-10.4,"
+				+ "\"apparent_temperature\":-15.2,\"weathercode\":3,\"is_day\":1},"
+				+ "\"hourly\":{\"time\":[\"2025-01-01T00:00\",\"2025-01-01T01:00\",\"2025-01-01T02:00\"],"
+				+ "\"temperature_2m\":[-12.5,-11.8,-11.1],\"apparent_temperature\":[-16,-15.5,-15],"
+				+ "\"weathercode\":[3,61,3]},"
+				+ "\"daily\":{\"time\":[\"2025-01-01\",\"2025-01-02\"],\"temperature_2m_max\":[-8,-7],"
+				+ "\"temperature_2m_min\":[-14,-13],\"weathercode\":[3,71]}}";
+	}
+}